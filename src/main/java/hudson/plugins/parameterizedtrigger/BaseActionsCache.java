@@ -0,0 +1,65 @@
+package hudson.plugins.parameterizedtrigger;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import hudson.Extension;
+import hudson.model.AbstractBuild;
+import hudson.model.Action;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.RunListener;
+import hudson.plugins.parameterizedtrigger.AbstractBuildParameters.DontTriggerException;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Keeps the base actions of the configs triggered by a build through the dependency graph, so that they are computed
+ * once per config rather than once per downstream project. They are released when the build is finalized.
+ */
+@Restricted(NoExternalUse.class)
+public final class BaseActionsCache {
+
+    /**
+     * By build, then by config: the base actions, or the {@link DontTriggerException} computing them threw.
+     */
+    private static final Cache<AbstractBuild<?, ?>, Map<BuildTriggerConfig, Object>> BASE_ACTIONS =
+            CacheBuilder.newBuilder().weakKeys().build();
+
+    private BaseActionsCache() {}
+
+    /**
+     * {@link BuildTriggerConfig#getBaseActions(AbstractBuild, TaskListener)}, computed once per build and config.
+     */
+    @SuppressWarnings("unchecked")
+    static List<Action> getBaseActions(BuildTriggerConfig config, AbstractBuild<?, ?> build, TaskListener listener)
+            throws IOException, InterruptedException, DontTriggerException {
+        Map<BuildTriggerConfig, Object> byConfig =
+                BASE_ACTIONS.asMap().computeIfAbsent(build, b -> new ConcurrentHashMap<>());
+        Object baseActions = byConfig.get(config);
+        if (baseActions == null) {
+            try {
+                baseActions = Collections.unmodifiableList(config.getBaseActions(build, listener));
+            } catch (DontTriggerException e) {
+                baseActions = e;
+            }
+            byConfig.put(config, baseActions);
+        }
+        if (baseActions instanceof DontTriggerException) {
+            throw (DontTriggerException) baseActions;
+        }
+        return (List<Action>) baseActions;
+    }
+
+    @Extension
+    public static final class RunListenerImpl extends RunListener<Run<?, ?>> {
+        @Override
+        public void onFinalized(Run<?, ?> run) {
+            BASE_ACTIONS.invalidate(run);
+        }
+    }
+}
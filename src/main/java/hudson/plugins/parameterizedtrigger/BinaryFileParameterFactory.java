@@ -13,6 +13,7 @@ import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.logging.Logger;
 import org.kohsuke.stapler.DataBoundConstructor;
@@ -62,12 +63,25 @@ public class BinaryFileParameterFactory extends AbstractBuildParameterFactory {
             // save them into the master because FileParameterValue might need files after the agent workspace have
             // disappeared/reused
             FilePath target = new FilePath(build.getRootDir()).child("parameter-files");
-            int n = workspace.copyRecursiveTo(getFilePattern(), target);
+            List<FilePath> files = new ArrayList<>();
+            boolean shared = ParameterFileStore.ENABLED;
+            if (shared) {
+                // each file is stored once, and linked to from this build and the triggered ones
+                for (FilePath f : workspace.list(getFilePattern())) {
+                    String relativePath =
+                            f.getRemote().substring(workspace.getRemote().length() + 1).replace('\\', '/');
+                    FilePath copy = target.child(relativePath);
+                    ParameterFileStore.copy(f, new File(copy.getRemote()));
+                    files.add(copy);
+                }
+            } else if (workspace.copyRecursiveTo(getFilePattern(), target) > 0) {
+                files.addAll(Arrays.asList(target.list(getFilePattern())));
+            }
 
-            if (n == 0) {
+            if (files.isEmpty()) {
                 noFilesFoundAction.failCheck(listener);
             } else {
-                for (final FilePath f : target.list(getFilePattern())) {
+                for (final FilePath f : files) {
                     LOGGER.fine("Triggering build with " + f.getName());
 
                     result.add(new AbstractBuildParameters() {
@@ -76,8 +90,10 @@ public class BinaryFileParameterFactory extends AbstractBuildParameterFactory {
                                 throws IOException, InterruptedException, DontTriggerException {
                             assert f.getChannel()
                                     == null; // we copied files locally. This file must be local to the master
-                            FileParameterValue fv =
-                                    new FileParameterValue(parameterName, new File(f.getRemote()), f.getName());
+                            File file = new File(f.getRemote());
+                            FileParameterValue fv = shared
+                                    ? new SharedFileParameterValue(parameterName, file, f.getName())
+                                    : new FileParameterValue(parameterName, file, f.getName());
 
                             if ($setLocation != null) {
                                 try {
@@ -83,26 +83,55 @@ public class BlockableBuildTriggerConfig extends BuildTriggerConfig {
     protected QueueTaskFuture schedule(AbstractBuild<?, ?> build, Job project, List<Action> list, TaskListener listener)
             throws InterruptedException, IOException {
         if (block != null) {
-            while (true) {
-                // add DifferentiatingAction to make sure this doesn't get merged with something else,
-                // which is most likely unintended. Might make sense to do it at BuildTriggerConfig for all.
-                list = CollectionUtils.immutableList(list, new DifferentiatingAction());
+            // add DifferentiatingAction to make sure this doesn't get merged with something else,
+            // which is most likely unintended. Might make sense to do it at BuildTriggerConfig for all.
+            final List<Action> actions = CollectionUtils.immutableList(list, new DifferentiatingAction());
 
-                // if we fail to add the item to the queue, wait and retry.
-                // it also means we have to force quiet period = 0, or else it'll never leave the queue
-                QueueTaskFuture f = schedule(build, project, 0, list, listener);
-                // When a project is disabled or the configuration is not yet saved f will always be null and we're
-                // caught in a loop, therefore we need to check for it
-                if (f != null || !canBeScheduled(project)) {
-                    return f;
-                }
-                Thread.sleep(1000);
+            // if we fail to add the item to the queue, retry once the queue has moved on.
+            // it also means we have to force quiet period = 0, or else it'll never leave the queue
+            QueueTaskFuture f = schedule(build, project, 0, actions, listener);
+            // When a project is disabled or the configuration is not yet saved f will always be null and we'd be
+            // retrying forever, therefore we need to check for it
+            if (f != null || !canBeScheduled(project)) {
+                return f;
             }
+            return ScheduleRetryQueue.get()
+                    .schedule(
+                            new ScheduleRetryQueue.Attempt() {
+                                @Override
+                                public QueueTaskFuture schedule() throws IOException, InterruptedException {
+                                    return BlockableBuildTriggerConfig.this.schedule(
+                                            build, project, 0, actions, listener);
+                                }
+
+                                @Override
+                                public boolean canRetry() {
+                                    return canBeScheduled(project);
+                                }
+                            },
+                            project.getFullName(),
+                            listener);
         } else {
             return super.schedule(build, project, list, listener);
         }
     }
 
+    @Override
+    TriggeredBuildsScheduler.Submission prepareSchedule(
+            AbstractBuild<?, ?> build, Job project, List<Action> list, TaskListener listener)
+            throws InterruptedException, IOException {
+        if (block != null) {
+            return prepareSchedule(
+                    build, project, 0, CollectionUtils.immutableList(list, new DifferentiatingAction()), listener);
+        }
+        return super.prepareSchedule(build, project, list, listener);
+    }
+
+    @Override
+    boolean retriesRefusedBuilds() {
+        return block != null;
+    }
+
     public Collection<Node> getNodes() {
         Label label = Jenkins.get().getLabel("asrt");
         if (label == null) return Collections.emptyList();
@@ -35,6 +35,7 @@ import hudson.model.Result;
 import java.util.Arrays;
 import java.util.List;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
 
 /**
  * Determines how to handle the status of the triggered builds in {@link TriggerBuilder}.
@@ -46,6 +47,9 @@ public class BlockingBehaviour extends AbstractDescribableImpl<BlockingBehaviour
     public final Result unstableThreshold;
     public final Result failureThreshold;
 
+    private boolean completionOrder;
+    private boolean failFast;
+
     @DataBoundConstructor
     public BlockingBehaviour(String buildStepFailureThreshold, String unstableThreshold, String failureThreshold) {
         this.buildStepFailureThreshold = parse(buildStepFailureThreshold);
@@ -66,6 +70,32 @@ public class BlockingBehaviour extends AbstractDescribableImpl<BlockingBehaviour
         this.failureThreshold = failureThreshold;
     }
 
+    /**
+     * @return {@code true} if the triggered builds are handled in the order they complete,
+     *         {@code false} to handle them in the order they were scheduled
+     */
+    public boolean isCompletionOrder() {
+        return completionOrder;
+    }
+
+    @DataBoundSetter
+    public void setCompletionOrder(boolean completionOrder) {
+        this.completionOrder = completionOrder;
+    }
+
+    /**
+     * @return {@code true} if the remaining triggered builds are cancelled as soon as
+     *         {@link #mapBuildStepResult(Result)} reports that the build step has failed
+     */
+    public boolean isFailFast() {
+        return failFast;
+    }
+
+    @DataBoundSetter
+    public void setFailFast(boolean failFast) {
+        this.failFast = failFast;
+    }
+
     /**
      * Maps the result of a triggered build to the result of the triggering build step.
      *
@@ -25,22 +25,57 @@
  */
 package hudson.plugins.parameterizedtrigger;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.EnvVars;
 import hudson.model.AbstractBuild;
 import hudson.model.AbstractProject;
 import hudson.model.EnvironmentContributingAction;
+import hudson.model.Item;
 import hudson.model.Result;
+import hudson.model.Run;
+import hudson.util.CopyOnWriteList;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
 import jenkins.model.Jenkins;
+import jenkins.model.RunAction2;
+import jenkins.util.SystemProperties;
 import org.kohsuke.stapler.export.Exported;
 import org.kohsuke.stapler.export.ExportedBean;
 
 @ExportedBean
-public class BuildInfoExporterAction implements EnvironmentContributingAction {
+public class BuildInfoExporterAction implements EnvironmentContributingAction, RunAction2 {
+
+    private static final Logger LOGGER = Logger.getLogger(BuildInfoExporterAction.class.getName());
+
+    /**
+     * File in the build directory the references get appended to once the action is attached to a build.
+     */
+    static final String REFERENCES_FILE = "triggeredBuilds.log";
+
+    /**
+     * Number of triggered builds, and of triggered projects, the build page shows at once.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "non-final for script console")
+    static int SUMMARY_PAGE_SIZE =
+            SystemProperties.getInteger(BuildInfoExporterAction.class.getName() + ".summaryPageSize", 100);
 
     public static final String JOB_NAME_VARIABLE = "LAST_TRIGGERED_JOB_NAME";
     public static final String ALL_JOBS_NAME_VARIABLE = "TRIGGERED_JOB_NAMES";
@@ -49,6 +84,7 @@ public class BuildInfoExporterAction implements EnvironmentContributingAction {
     public static final String BUILD_RESULT_VARIABLE_PREFIX = "TRIGGERED_BUILD_RESULT_";
     public static final String BUILD_RUN_COUNT_PREFIX = "TRIGGERED_BUILD_RUN_COUNT_";
     public static final String RUN = "_RUN_";
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^a-zA-Z0-9]+");
     // now unused as part of map
     private transient String buildName;
     private transient int buildNumber;
@@ -57,13 +93,24 @@ public class BuildInfoExporterAction implements EnvironmentContributingAction {
     // this is now migrated to this.builds.
     private transient Map<String, List<BuildReference>> buildRefs;
 
-    private List<BuildReference> builds;
-    private BuildReference lastReference;
+    // the references while they are kept in build.xml, null once they moved to referencesFile
+    private CopyOnWriteList<BuildReference> builds;
+    // name of the file in the build directory holding the references, null while they are kept in build.xml
+    private String referencesFile;
+    private volatile BuildReference lastReference;
+
+    // append only, iterating it is safe while builds get added; loaded lazily from referencesFile
+    private transient volatile CopyOnWriteList<BuildReference> references;
+    private transient volatile Run<?, ?> run;
+    private transient volatile Snapshot snapshot;
+    // the triggered builds resolved so far by "project#number", held as long as the builds are loaded anyway
+    private transient volatile Cache<String, AbstractBuild<?, ?>> resolvedBuilds;
 
     public BuildInfoExporterAction(BuildReference buildRef) {
         super();
 
-        this.builds = new ArrayList<>();
+        this.builds = new CopyOnWriteList<>();
+        this.references = builds;
         addBuild(buildRef);
         lastReference = buildRef;
     }
@@ -75,36 +122,145 @@ public class BuildInfoExporterAction implements EnvironmentContributingAction {
 
     static BuildInfoExporterAction addBuildInfoExporterAction(
             AbstractBuild<?, ?> parentBuild, String triggeredProject, int buildNumber, Result buildResult) {
-        BuildInfoExporterAction action = parentBuild.getAction(BuildInfoExporterAction.class);
-        if (action == null) {
-            action = new BuildInfoExporterAction(triggeredProject, buildNumber, parentBuild, buildResult);
-            parentBuild.addAction(action);
-        } else {
-            action.addBuildReference(triggeredProject, buildNumber, buildResult);
-        }
-        return action;
+        return addBuildReference(parentBuild, new BuildReference(triggeredProject, buildNumber, buildResult));
     }
 
     static BuildInfoExporterAction addBuildInfoExporterAction(
             AbstractBuild<?, ?> parentBuild, String triggeredProject) {
-        BuildInfoExporterAction action = parentBuild.getAction(BuildInfoExporterAction.class);
-        if (action == null) {
-            action = new BuildInfoExporterAction(new BuildReference(triggeredProject));
-            parentBuild.addAction(action);
-        } else {
-            action.addBuildReference(new BuildReference(triggeredProject));
+        return addBuildReference(parentBuild, new BuildReference(triggeredProject));
+    }
+
+    /**
+     * Adds the reference to the action of the build, creating the action if the build has none yet.
+     * Safe to call concurrently for the same build.
+     */
+    private static BuildInfoExporterAction addBuildReference(AbstractBuild<?, ?> parentBuild, BuildReference buildRef) {
+        BuildInfoExporterAction action;
+        // concurrently completing builds have to add their references to the same action
+        synchronized (parentBuild) {
+            action = parentBuild.getAction(BuildInfoExporterAction.class);
+            if (action == null) {
+                action = new BuildInfoExporterAction(buildRef);
+                parentBuild.addAction(action);
+                return action;
+            }
         }
+        action.addBuild(buildRef);
         return action;
     }
 
-    private void addBuild(BuildReference br) {
-        this.builds.add(br);
+    private synchronized void addBuild(BuildReference br) {
+        CopyOnWriteList<BuildReference> refs = getReferences();
+        if (run != null) {
+            if (referencesFile == null) {
+                moveToFile(refs.getView(), br);
+            } else {
+                writeReferences(Collections.singletonList(br), true);
+            }
+        }
+        refs.add(br);
 
         if (br.buildNumber != 0) {
             this.lastReference = br;
         }
     }
 
+    @Override
+    public void onAttached(Run<?, ?> r) {
+        this.run = r;
+        synchronized (this) {
+            if (referencesFile == null) {
+                moveToFile(getReferences().getView(), null);
+            }
+        }
+    }
+
+    @Override
+    public void onLoad(Run<?, ?> r) {
+        this.run = r;
+    }
+
+    /**
+     * Moves the references from build.xml to a file in the build directory, so that adding one more reference
+     * no longer rewrites all of them when the build gets saved.
+     */
+    private void moveToFile(List<BuildReference> refs, @CheckForNull BuildReference br) {
+        List<BuildReference> toWrite = new ArrayList<>(refs);
+        if (br != null) {
+            toWrite.add(br);
+        }
+        referencesFile = REFERENCES_FILE;
+        if (writeReferences(toWrite, false)) {
+            builds = null;
+        } else {
+            // keep them in build.xml
+            referencesFile = null;
+        }
+    }
+
+    private boolean writeReferences(List<BuildReference> refs, boolean append) {
+        File file = new File(run.getRootDir(), referencesFile);
+        try (Writer w = Files.newBufferedWriter(
+                file.toPath(),
+                StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE,
+                append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            for (BuildReference ref : refs) {
+                // job names can't contain control characters, so a name can't break the line
+                w.write(ref.buildNumber + "\t" + ref.buildResult + "\t" + ref.projectName + "\n");
+            }
+            return true;
+        } catch (IOException | InvalidPathException e) {
+            LOGGER.log(Level.WARNING, "Failed to write the triggered builds of " + run + " to " + file, e);
+            return false;
+        }
+    }
+
+    /**
+     * @return the references, loaded from the file in the build directory on first use
+     */
+    private CopyOnWriteList<BuildReference> getReferences() {
+        CopyOnWriteList<BuildReference> refs = references;
+        if (refs == null && run == null) {
+            LOGGER.log(Level.WARNING, "Cannot load the triggered builds before the build is loaded");
+            return new CopyOnWriteList<>();
+        }
+        if (refs == null) {
+            synchronized (this) {
+                refs = references;
+                if (refs == null) {
+                    references = refs = referencesFile == null ? builds : new CopyOnWriteList<>(readReferences());
+                }
+            }
+        }
+        return refs;
+    }
+
+    private List<BuildReference> readReferences() {
+        List<BuildReference> refs = new ArrayList<>();
+        File file = new File(run.getRootDir(), referencesFile);
+        try (BufferedReader r = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                String[] fields = line.split("\t", 3);
+                if (fields.length < 3) {
+                    // incomplete last line
+                    continue;
+                }
+                Result result = "null".equals(fields[1]) ? null : Result.fromString(fields[1]);
+                BuildReference br = new BuildReference(fields[2], Integer.parseInt(fields[0]), result);
+                refs.add(br);
+                if (br.buildNumber != 0) {
+                    lastReference = br;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            LOGGER.log(Level.WARNING, "Failed to read the triggered builds of " + run + " from " + file, e);
+        }
+        return refs;
+    }
+
     public void addBuildReference(String triggeredProject, int buildNumber, Result buildResult) {
         BuildReference buildRef = new BuildReference(triggeredProject, buildNumber, buildResult);
         addBuild(buildRef);
@@ -114,10 +270,72 @@ public class BuildInfoExporterAction implements EnvironmentContributingAction {
         addBuild(buildRef);
     }
 
+    /**
+     * The references added so far, grouped by project in the order the projects were first triggered.
+     */
+    private Snapshot getSnapshot() {
+        List<BuildReference> current = getReferences().getView();
+        Snapshot s = snapshot;
+        // the references are only ever appended, so the same size means the same references
+        if (s == null || s.size != current.size()) {
+            snapshot = s = new Snapshot(current);
+        }
+        return s;
+    }
+
+    private static final class Snapshot {
+        final int size;
+        final Map<String, ProjectBuilds> buildsByProject = new LinkedHashMap<>();
+        // the references with a build
+        final List<BuildReference> triggeredBuilds = new ArrayList<>();
+        // the references of non blocking triggers, without a build
+        final List<BuildReference> triggeredProjects = new ArrayList<>();
+
+        Snapshot(List<BuildReference> builds) {
+            this.size = builds.size();
+            for (BuildReference br : builds) {
+                buildsByProject
+                        .computeIfAbsent(br.projectName, ProjectBuilds::new)
+                        .add(br);
+                (br.buildNumber != 0 ? triggeredBuilds : triggeredProjects).add(br);
+            }
+        }
+    }
+
+    /**
+     * The references to the builds of a project, with its name sanitized for use in variable names.
+     */
+    private static final class ProjectBuilds {
+        final String sanitizedName;
+        final List<BuildReference> refs = new ArrayList<>();
+        int buildCount;
+
+        ProjectBuilds(String projectName) {
+            this.sanitizedName = sanitize(projectName);
+        }
+
+        void add(BuildReference br) {
+            refs.add(br);
+            if (br.buildNumber != 0) {
+                buildCount++;
+            }
+        }
+    }
+
+    private static String sanitize(String name) {
+        return NON_ALPHANUMERIC.matcher(name).replaceAll("_");
+    }
+
+    @ExportedBean
     public static class BuildReference {
 
+        @Exported
         public final String projectName;
+
+        @Exported
         public final int buildNumber;
+
+        @Exported
         public final Result buildResult;
 
         public BuildReference(String projectName, int buildNumber, Result buildResult) {
@@ -151,94 +369,162 @@ public class BuildInfoExporterAction implements EnvironmentContributingAction {
     @Override
     public void buildEnvVars(AbstractBuild<?, ?> build, EnvVars env) {
 
+        Map<String, ProjectBuilds> buildsByProject = getSnapshot().buildsByProject;
         // Note: this will only indicate the last project in the list that is ran
-        env.put(JOB_NAME_VARIABLE, lastReference.projectName.replaceAll("[^a-zA-Z0-9]+", "_"));
+        BuildReference lastReference = this.lastReference;
+        ProjectBuilds last = buildsByProject.get(lastReference.projectName);
+        env.put(JOB_NAME_VARIABLE, last != null ? last.sanitizedName : sanitize(lastReference.projectName));
         // all projects triggered.
         // this should not include projects that don't have a build item.
-        String sanitizedProjectList = getProjectListString(",");
+        String sanitizedProjectList = getProjectListString(buildsByProject, ",");
         env.put(ALL_JOBS_NAME_VARIABLE, sanitizedProjectList);
 
-        for (String project : getProjectsWithBuilds()) {
+        for (ProjectBuilds project : buildsByProject.values()) {
+            if (project.buildCount == 0) {
+                continue;
+            }
             // for each project add the following variables once
             // all buildnumbers, lastbuildnumber
             // all Run results, last build result
-            String sanitizedBuildName = project.replaceAll("[^a-zA-Z0-9]+", "_");
-            List<BuildReference> refs = getBuildRefs(project);
+            String sanitizedBuildName = project.sanitizedName;
+            List<BuildReference> refs = project.refs;
 
             env.put(ALL_BUILD_NUMBER_VARIABLE_PREFIX + sanitizedBuildName, getBuildNumbersString(refs, ","));
             env.put(BUILD_RUN_COUNT_PREFIX + sanitizedBuildName, Integer.toString(refs.size()));
+            String runResultPrefix = BUILD_RESULT_VARIABLE_PREFIX + sanitizedBuildName + RUN;
             for (BuildReference br : refs) {
                 if (br.buildNumber != 0) {
-                    String triggeredBuildRunResultKey =
-                            BUILD_RESULT_VARIABLE_PREFIX + sanitizedBuildName + RUN + Integer.toString(br.buildNumber);
-                    env.put(triggeredBuildRunResultKey, br.buildResult.toString());
-                }
-            }
-            BuildReference lastBuild = null;
-            for (int i = (refs.size()); i > 0; i--) {
-                if (refs.get(i - 1).buildNumber != 0) {
-                    lastBuild = refs.get(i - 1);
+                    env.put(runResultPrefix + br.buildNumber, br.buildResult.toString());
                 }
-                break;
             }
-            if (lastBuild != null) {
+            BuildReference lastBuild = refs.get(refs.size() - 1);
+            if (lastBuild.buildNumber != 0) {
                 env.put(BUILD_NUMBER_VARIABLE_PREFIX + sanitizedBuildName, Integer.toString(lastBuild.buildNumber));
                 env.put(BUILD_RESULT_VARIABLE_PREFIX + sanitizedBuildName, lastBuild.buildResult.toString());
             }
         }
     }
 
-    private List<BuildReference> getBuildRefs(String project) {
-        List<BuildReference> refs = new ArrayList<>();
-        for (BuildReference br : builds) {
-            if (br.projectName.equals(project)) refs.add(br);
-        }
-        return refs;
+    /**
+     * Gets the references to all the builds and projects triggered from this one, without loading any of them.
+     *
+     * @return the references in the order they were added
+     */
+    @Exported(visibility = 1)
+    public List<BuildReference> getBuildReferences() {
+        return getReferences().getView();
     }
 
     /**
      * Gets all the builds triggered from this one, filters out the items that
-     * were non blocking, which we don't have a builds for. Used in the UI for see
-     * Summary.groovy
+     * were non blocking, which we don't have a builds for.
      *
      * @return a list of builds that are triggered by this build. May contains null if a project or a build is deleted.
      */
     @Exported(visibility = 1)
     public List<AbstractBuild<?, ?>> getTriggeredBuilds() {
+        return getTriggeredBuilds(0, Integer.MAX_VALUE);
+    }
 
+    /**
+     * Gets a page of the builds triggered from this one, only loading the builds of that page.
+     * Used in the UI for see Summary.groovy
+     *
+     * @param start index of the first build of the page
+     * @param count maximum number of builds of the page
+     * @return a list of builds that are triggered by this build. May contains null if a project or a build is deleted.
+     */
+    public List<AbstractBuild<?, ?>> getTriggeredBuilds(int start, int count) {
         List<AbstractBuild<?, ?>> builds = new ArrayList<>();
-
-        for (BuildReference br : this.builds) {
-            AbstractProject<?, ? extends AbstractBuild<?, ?>> project =
-                    Jenkins.get().getItemByFullName(br.projectName, AbstractProject.class);
-            if (br.buildNumber != 0) {
-                builds.add((project != null) ? project.getBuildByNumber(br.buildNumber) : null);
-            }
+        Map<String, AbstractProject<?, ?>> projects = new HashMap<>();
+        for (BuildReference br : page(getSnapshot().triggeredBuilds, start, count)) {
+            builds.add(resolveBuild(br, projects));
         }
         return builds;
     }
 
+    /**
+     * @return the number of builds {@link #getTriggeredBuilds()} returns
+     */
+    public int getTriggeredBuildCount() {
+        return getSnapshot().triggeredBuilds.size();
+    }
+
     /**
      * Gets all the projects that triggered from this one which were non blocking,
      * which we don't have a builds for. Does not include builds that are returned
-     * in #link{getTriggeredBuilds} Used in the UI for see Summary.groovy
+     * in #link{getTriggeredBuilds}
      *
      * @return List of Projects that are triggered by this build. May contains null if a project is deleted.
      */
     @Exported(visibility = 1)
     public List<AbstractProject<?, ?>> getTriggeredProjects() {
-        List<AbstractProject<?, ?>> projects = new ArrayList<>();
+        return getTriggeredProjects(0, Integer.MAX_VALUE);
+    }
 
-        for (BuildReference br : this.builds) {
-            if (br.buildNumber == 0) {
-                AbstractProject<?, ? extends AbstractBuild<?, ?>> project =
-                        Jenkins.get().getItemByFullName(br.projectName, AbstractProject.class);
-                projects.add(project);
-            }
+    /**
+     * Gets a page of the projects triggered from this one which were non blocking.
+     * Used in the UI for see Summary.groovy
+     *
+     * @param start index of the first project of the page
+     * @param count maximum number of projects of the page
+     * @return List of Projects that are triggered by this build. May contains null if a project is deleted.
+     */
+    public List<AbstractProject<?, ?>> getTriggeredProjects(int start, int count) {
+        List<AbstractProject<?, ?>> projects = new ArrayList<>();
+        Map<String, AbstractProject<?, ?>> resolved = new HashMap<>();
+        for (BuildReference br : page(getSnapshot().triggeredProjects, start, count)) {
+            projects.add(resolveProject(br.projectName, resolved));
         }
         return projects;
     }
 
+    /**
+     * @return the number of projects {@link #getTriggeredProjects()} returns
+     */
+    public int getTriggeredProjectCount() {
+        return getSnapshot().triggeredProjects.size();
+    }
+
+    /**
+     * @return the number of triggered builds, and of triggered projects, the build page shows at once
+     */
+    public int getSummaryPageSize() {
+        return SUMMARY_PAGE_SIZE > 0 ? SUMMARY_PAGE_SIZE : Integer.MAX_VALUE;
+    }
+
+    private static List<BuildReference> page(List<BuildReference> refs, int start, int count) {
+        int from = Math.min(Math.max(start, 0), refs.size());
+        int to = (int) Math.min((long) from + Math.max(count, 0), refs.size());
+        return refs.subList(from, to);
+    }
+
+    @CheckForNull
+    private AbstractBuild<?, ?> resolveBuild(BuildReference br, Map<String, AbstractProject<?, ?>> projects) {
+        Cache<String, AbstractBuild<?, ?>> cache = resolvedBuilds;
+        if (cache == null) {
+            resolvedBuilds = cache = CacheBuilder.newBuilder().weakValues().build();
+        }
+        String key = br.projectName + '#' + br.buildNumber;
+        AbstractBuild<?, ?> build = cache.getIfPresent(key);
+        if (build != null) {
+            // resolved on behalf of someone else maybe
+            return build.hasPermission(Item.READ) ? build : null;
+        }
+        AbstractProject<?, ?> project = resolveProject(br.projectName, projects);
+        build = project != null ? project.getBuildByNumber(br.buildNumber) : null;
+        if (build != null) {
+            cache.put(key, build);
+        }
+        return build;
+    }
+
+    @CheckForNull
+    private static AbstractProject<?, ?> resolveProject(String name, Map<String, AbstractProject<?, ?>> resolved) {
+        // the same project is usually triggered many times
+        return resolved.computeIfAbsent(name, n -> Jenkins.get().getItemByFullName(n, AbstractProject.class));
+    }
+
     /**
      * Handle cases from older builds so that they still add old variables if
      * needed to. Should not show any UI as there will be no data added.
@@ -249,14 +535,19 @@ public class BuildInfoExporterAction implements EnvironmentContributingAction {
         if (this.lastReference == null) {
             this.lastReference = new BuildReference(this.buildName, this.buildNumber, Result.NOT_BUILT);
         }
+        if (this.referencesFile != null) {
+            // loaded lazily
+            return this;
+        }
         if (this.builds == null) {
-            this.builds = new ArrayList<>();
+            this.builds = new CopyOnWriteList<>();
         }
         if (this.buildRefs != null) {
             for (List<BuildReference> buildReferences : buildRefs.values()) {
                 this.builds.addAll(buildReferences);
             }
         }
+        this.references = this.builds;
         return this;
     }
 
@@ -292,34 +583,24 @@ public class BuildInfoExporterAction implements EnvironmentContributingAction {
      * @return list of projects separated by separator
      */
     protected String getProjectListString(String separator) {
-        Set<String> refs = getProjectsWithBuilds();
+        return getProjectListString(getSnapshot().buildsByProject, separator);
+    }
+
+    private static String getProjectListString(Map<String, ProjectBuilds> buildsByProject, String separator) {
         StringBuilder buf = new StringBuilder();
         boolean first = true;
 
-        for (String s : refs) {
+        for (ProjectBuilds project : buildsByProject.values()) {
+            if (project.buildCount == 0) {
+                continue;
+            }
             if (first) {
                 first = false;
             } else {
                 buf.append(separator);
             }
-            buf.append(s.replaceAll("[^a-zA-Z0-9]+", "_"));
+            buf.append(project.sanitizedName);
         }
         return buf.toString();
     }
-
-    /**
-     * Gets the unique set of project names that have a linked build.
-     *
-     * @return Set of project names that have at least one build linked.
-     */
-    private Set<String> getProjectsWithBuilds() {
-        Set<String> projects = new HashSet<String>();
-
-        for (BuildReference br : this.builds) {
-            if (br.buildNumber != 0) {
-                projects.add(br.projectName);
-            }
-        }
-        return projects;
-    }
 }
@@ -88,8 +88,12 @@ public class BuildTrigger extends Notifier implements DependencyDeclarer {
                     break;
                 }
             }
-            // Fire this config's projects if not already fired
-            if (hasNonAbstractProject) {
+            // Fire this config's projects if not already fired.
+            // Throttled configs are left out of the dependency graph, which would trigger their builds all at once
+            if (config.isThrottled()) {
+                config.performInBackground(build, listener);
+                alreadyFired.add(config);
+            } else if (hasNonAbstractProject) {
                 config.perform(build, launcher, listener);
                 alreadyFired.add(config);
             }
@@ -117,16 +121,11 @@ public class BuildTrigger extends Notifier implements DependencyDeclarer {
                         }
                     }
 
-                    String[] projects =
-                            config.getProjects(build.getEnvironment(listener)).split(",");
-                    String[] vars = config.getProjects().split(",");
-                    for (int i = 0; i < projects.length; i++) {
-                        if (vars[i].trim().contains("$")) {
-                            AbstractBuild abstractBuild = downstreamMap.get(projects[i]);
-                            if (null != abstractBuild) {
-                                listener.getLogger().println(makeLogEntry(projects[i].trim()));
-                                buildMap.put(abstractBuild.getProject().getFullName(), abstractBuild.getNumber());
-                            }
+                    for (String projectName : expandedDynamicNames(build, config, listener)) {
+                        AbstractBuild abstractBuild = downstreamMap.get(projectName);
+                        if (null != abstractBuild) {
+                            listener.getLogger().println(makeLogEntry(projectName));
+                            buildMap.put(abstractBuild.getProject().getFullName(), abstractBuild.getNumber());
                         }
                     }
                 }
@@ -138,6 +137,29 @@ public class BuildTrigger extends Notifier implements DependencyDeclarer {
         return true;
     }
 
+    /**
+     * @return the names the dynamic names of the config expanded to when it triggered its projects
+     */
+    private static List<String> expandedDynamicNames(
+            AbstractBuild<?, ?> build, BuildTriggerConfig config, BuildListener listener)
+            throws IOException, InterruptedException {
+        ExpandedProjectNamesAction expanded = build.getAction(ExpandedProjectNamesAction.class);
+        EnvVars env = null;
+        List<String> names = new ArrayList<>();
+        for (String name : config.getProjectNames().getDynamicNames()) {
+            List<String> expandedNames = expanded != null ? expanded.getExpandedNames(config, name) : null;
+            if (expandedNames == null) {
+                // not triggered, e.g. the condition of the config was not met
+                if (env == null) {
+                    env = build.getEnvironment(listener);
+                }
+                expandedNames = ProjectNames.split(env.expand(name));
+            }
+            names.addAll(expandedNames);
+        }
+        return names;
+    }
+
     private String makeLogEntry(String name) {
         String url = name;
         url = Jenkins.get().getRootUrl() + "job/" + url.replaceAll("/", "/job/");
@@ -158,6 +180,10 @@ public class BuildTrigger extends Notifier implements DependencyDeclarer {
         if (!canDeclare(owner)) return;
 
         for (BuildTriggerConfig config : configs) {
+            if (config.isThrottled()) {
+                // triggered by perform, which applies the throttle
+                continue;
+            }
             List<AbstractProject> projectList = config.getProjectList(owner.getParent(), null);
             for (AbstractProject project : projectList) {
                 if (config.isTriggerFromChildProjects() && owner instanceof ItemGroup) {
@@ -2,8 +2,12 @@ package hudson.plugins.parameterizedtrigger;
 
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.math.LongMath;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.AbortException;
 import hudson.EnvVars;
 import hudson.Extension;
 import hudson.Launcher;
@@ -22,37 +26,46 @@ import hudson.model.Item;
 import hudson.model.ItemGroup;
 import hudson.model.Items;
 import hudson.model.Job;
+import hudson.model.ParameterDefinition;
+import hudson.model.ParameterValue;
 import hudson.model.ParametersAction;
+import hudson.model.ParametersDefinitionProperty;
+import hudson.model.Queue;
 import hudson.model.Run;
 import hudson.model.TaskListener;
+import hudson.model.listeners.ItemListener;
 import hudson.model.queue.QueueTaskFuture;
 import hudson.model.queue.Tasks;
 import hudson.plugins.parameterizedtrigger.AbstractBuildParameters.DontTriggerException;
 import hudson.plugins.promoted_builds.Promotion;
 import hudson.security.ACL;
+import hudson.security.ACLContext;
 import hudson.util.FormValidation;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.StringTokenizer;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import jenkins.model.Jenkins;
 import jenkins.model.ParameterizedJobMixIn;
 import jenkins.security.QueueItemAuthenticator;
 import jenkins.security.QueueItemAuthenticatorConfiguration;
+import jenkins.util.SystemProperties;
 import org.acegisecurity.AccessDeniedException;
 import org.acegisecurity.Authentication;
 import org.kohsuke.accmod.Restricted;
 import org.kohsuke.accmod.restrictions.DoNotUse;
 import org.kohsuke.stapler.AncestorInPath;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
 import org.kohsuke.stapler.QueryParameter;
 
 public class BuildTriggerConfig implements Describable<BuildTriggerConfig> {
@@ -66,6 +79,30 @@ public class BuildTriggerConfig implements Describable<BuildTriggerConfig> {
     private final ResultCondition condition;
     private final boolean triggerWithNoParameters;
     private final boolean triggerFromChildProjects;
+    private double maxBuildsPerSecond;
+    private int maxBuildsInFlight;
+
+    /**
+     * Incremented whenever a job is created, renamed, moved or deleted, invalidating every {@link ResolvedJobs}.
+     */
+    private static final AtomicLong ITEMS_GENERATION = new AtomicLong();
+
+    /**
+     * Maximum number of job names offered by the autocompletion, 0 for no limit.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "non-final for script console")
+    static int AUTO_COMPLETE_LIMIT =
+            SystemProperties.getInteger(BuildTriggerConfig.class.getName() + ".autoCompleteLimit", 100);
+
+    /**
+     * Maximum number of parameter combinations the factories of a config may produce, 0 for no limit.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "non-final for script console")
+    static int MAX_COMBINATIONS =
+            SystemProperties.getInteger(BuildTriggerConfig.class.getName() + ".maxCombinations", 0);
+
+    private transient volatile ProjectNames projectNames;
+    private transient volatile ResolvedJobs resolvedJobs;
 
     public BuildTriggerConfig(
             String projects,
@@ -75,6 +112,7 @@ public class BuildTriggerConfig implements Describable<BuildTriggerConfig> {
             List<AbstractBuildParameters> configs,
             boolean triggerFromChildProjects) {
         this.projects = projects;
+        this.projectNames = ProjectNames.parse(projects);
         this.condition = condition;
         this.triggerWithNoParameters = triggerWithNoParameters;
         this.configFactories = configFactories;
@@ -135,7 +173,24 @@ public class BuildTriggerConfig implements Describable<BuildTriggerConfig> {
     }
 
     public String getProjects(EnvVars env) {
-        return (env != null ? env.expand(projects) : projects);
+        return (env != null && getProjectNames().isDynamic() ? env.expand(projects) : projects);
+    }
+
+    /**
+     * @return the project list split into static and dynamic names
+     */
+    ProjectNames getProjectNames() {
+        ProjectNames names = projectNames;
+        if (names == null) {
+            // not deserialized through readResolve
+            names = projectNames = ProjectNames.parse(projects);
+        }
+        return names;
+    }
+
+    protected Object readResolve() {
+        projectNames = ProjectNames.parse(projects);
+        return this;
     }
 
     public ResultCondition getCondition() {
@@ -150,6 +205,34 @@ public class BuildTriggerConfig implements Describable<BuildTriggerConfig> {
         return triggerFromChildProjects;
     }
 
+    /**
+     * @return the maximum rate at which builds get scheduled, 0 for no limit
+     */
+    public double getMaxBuildsPerSecond() {
+        return maxBuildsPerSecond;
+    }
+
+    @DataBoundSetter
+    public void setMaxBuildsPerSecond(double maxBuildsPerSecond) {
+        this.maxBuildsPerSecond = Math.max(0, maxBuildsPerSecond);
+    }
+
+    /**
+     * @return the maximum number of scheduled builds that have not started yet, 0 for no limit
+     */
+    public int getMaxBuildsInFlight() {
+        return maxBuildsInFlight;
+    }
+
+    @DataBoundSetter
+    public void setMaxBuildsInFlight(int maxBuildsInFlight) {
+        this.maxBuildsInFlight = Math.max(0, maxBuildsInFlight);
+    }
+
+    boolean isThrottled() {
+        return maxBuildsPerSecond > 0 || maxBuildsInFlight > 0;
+    }
+
     /**
      * @deprecated
      *      Use {@link #getJobs(ItemGroup, EnvVars)}
@@ -180,11 +263,56 @@ public class BuildTriggerConfig implements Describable<BuildTriggerConfig> {
      *      If the user has no {@link Item#READ} permission, the job won't be added to the list.
      */
     public List<Job> getJobs(ItemGroup context, EnvVars env) {
+        return getJobsNamed(context, getProjectNames().expand(env));
+    }
+
+    /**
+     * @param names the names of the list, expanded by {@link ProjectNames#expand(EnvVars)}
+     * @see #getJobs(ItemGroup, EnvVars)
+     */
+    List<Job> getJobsNamed(ItemGroup context, List<String> names) {
         List<Job> projectList = new ArrayList<>();
-        projectList.addAll(readableItemsFromNameList(context, getProjects(env), Job.class));
+        for (Job job : resolveJobs(context, names)) {
+            if (isReadable(job)) {
+                projectList.add(job);
+            }
+        }
         return projectList;
     }
 
+    /**
+     * Whether the current authentication could look the item up by its name, which needs {@link Item#READ} on the
+     * item and on every folder containing it.
+     */
+    static boolean isReadable(Item item) {
+        for (Item i = item; i != null; i = i.getParent() instanceof Item ? (Item) i.getParent() : null) {
+            if (!i.hasPermission(Item.READ)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Resolves the jobs of the list regardless of the permissions of the current authentication, which
+     * {@link #isReadable(Item)} checks afterwards.
+     * The result is cached until the list, the context or the set of jobs changes.
+     */
+    private List<Job> resolveJobs(ItemGroup context, List<String> names) {
+        // read the generation first so a concurrent change can't get cached as up to date
+        long generation = ITEMS_GENERATION.get();
+        ResolvedJobs cached = resolvedJobs;
+        if (cached != null && cached.matches(context, names, generation)) {
+            return cached.jobs;
+        }
+        List<Job> jobs;
+        try (ACLContext ctx = ACL.as2(ACL.SYSTEM2)) {
+            jobs = readableItemsFromNameList(context, names, Job.class);
+        }
+        resolvedJobs = new ResolvedJobs(context, names, generation, jobs);
+        return jobs;
+    }
+
     /**
      * Provides a SubProjectData object containing four set, each containing projects to be displayed on the project
      * view under 'Subprojects' section.<br>
@@ -202,7 +330,7 @@ public class BuildTriggerConfig implements Describable<BuildTriggerConfig> {
 
         SubProjectData subProjectData = new SubProjectData();
 
-        iterateBuilds(context, projects, subProjectData);
+        iterateBuilds(context, getProjectNames(), subProjectData);
 
         // We don't want to show a project twice
         subProjectData.getTriggered().removeAll(subProjectData.getDynamic());
@@ -224,15 +352,12 @@ public class BuildTriggerConfig implements Describable<BuildTriggerConfig> {
      * <br>
      *
      * @param context           The container with which to resolve relative project names.
-     * @param projects          String containing the defined projects to build
+     * @param projects          The defined projects to build
      * @param subProjectData    Data object containing sets storing projects
      */
-    private static void iterateBuilds(AbstractProject context, String projects, SubProjectData subProjectData) {
+    private static void iterateBuilds(AbstractProject context, ProjectNames projects, SubProjectData subProjectData) {
 
-        StringTokenizer stringTokenizer = new StringTokenizer(projects, ",");
-        while (stringTokenizer.hasMoreTokens()) {
-            subProjectData.getUnresolved().add(stringTokenizer.nextToken().trim());
-        }
+        subProjectData.getUnresolved().addAll(projects.getNames());
 
         // Nbr of builds to back track
         final int BACK_TRACK = 5;
@@ -244,7 +369,9 @@ public class BuildTriggerConfig implements Describable<BuildTriggerConfig> {
             // If we don't have any build there's no point to trying to resolved dynamic projects
             if (currentBuild == null) {
                 // But we can still get statically defined project
-                subProjectData.getFixed().addAll(readableItemsFromNameList(context.getParent(), projects, Job.class));
+                subProjectData
+                        .getFixed()
+                        .addAll(readableItemsFromNameList(context.getParent(), projects.getNames(), Job.class));
 
                 // Remove them from unsolved
                 for (Job staticProject : subProjectData.getFixed()) {
@@ -282,12 +409,15 @@ public class BuildTriggerConfig implements Describable<BuildTriggerConfig> {
      */
     private static <T extends Item> List<T> readableItemsFromNameList(
             ItemGroup context, @NonNull String list, @NonNull Class<T> type) {
+        return readableItemsFromNameList(context, ProjectNames.parse(list).getNames(), type);
+    }
+
+    private static <T extends Item> List<T> readableItemsFromNameList(
+            ItemGroup context, @NonNull List<String> names, @NonNull Class<T> type) {
         Jenkins hudson = Jenkins.get();
 
         List<T> r = new ArrayList<>();
-        StringTokenizer tokens = new StringTokenizer(list, ",");
-        while (tokens.hasMoreTokens()) {
-            String fullName = tokens.nextToken().trim();
+        for (String fullName : names) {
             T item = null;
             try {
                 item = hudson.getItem(fullName, context, type);
@@ -316,6 +446,10 @@ public class BuildTriggerConfig implements Describable<BuildTriggerConfig> {
         Iterator<String> unsolvedProjectIterator =
                 subProjectData.getUnresolved().iterator();
 
+        // computed at most once, and only if there is something to expand
+        EnvVars env = null;
+        boolean envComputed = false;
+
         while (unsolvedProjectIterator.hasNext()) {
 
             String unresolvedProjectName = unsolvedProjectIterator.next();
@@ -324,10 +458,26 @@ public class BuildTriggerConfig implements Describable<BuildTriggerConfig> {
             // expand variables if applicable
             if (unresolvedProjectName.contains("$")) {
 
-                EnvVars env = null;
-                try {
-                    env = build != null ? build.getEnvironment() : null;
-                } catch (IOException | InterruptedException e) {
+                ExpandedProjectNamesAction expanded =
+                        build != null ? build.getAction(ExpandedProjectNamesAction.class) : null;
+                List<String> expandedNames = expanded != null ? expanded.getExpandedNames(unresolvedProjectName) : null;
+                if (expandedNames != null) {
+                    // recorded when the build triggered the projects, no need to rebuild its environment
+                    List<Job> jobs =
+                            readableItemsFromNameList(build.getProject().getParent(), expandedNames, Job.class);
+                    if (!jobs.isEmpty()) {
+                        subProjectData.getDynamic().addAll(jobs);
+                        unsolvedProjectIterator.remove();
+                    }
+                    continue;
+                }
+
+                if (!envComputed) {
+                    envComputed = true;
+                    try {
+                        env = build != null ? build.getEnvironment() : null;
+                    } catch (IOException | InterruptedException e) {
+                    }
                 }
 
                 unresolvedProjectName = env != null ? env.expand(unresolvedProjectName) : unresolvedProjectName;
@@ -371,28 +521,60 @@ public class BuildTriggerConfig implements Describable<BuildTriggerConfig> {
     List<Action> getBaseActions(
             Collection<AbstractBuildParameters> configs, AbstractBuild<?, ?> build, TaskListener listener)
             throws IOException, InterruptedException, DontTriggerException {
+        return getBaseActions(Collections.emptyList(), configs, build, listener);
+    }
+
+    /**
+     * @return the given base actions with the actions of the configs layered on top of them
+     */
+    private static List<Action> getBaseActions(
+            List<Action> baseActions,
+            Collection<AbstractBuildParameters> configs,
+            AbstractBuild<?, ?> build,
+            TaskListener listener)
+            throws IOException, InterruptedException, DontTriggerException {
         List<Action> actions = new ArrayList<>();
         ParametersAction params = null;
+        for (Action a : baseActions) {
+            if (a instanceof ParametersAction) {
+                params = (ParametersAction) a;
+            } else {
+                actions.add(a);
+            }
+        }
+        ParametersBuilder merged = null;
         for (AbstractBuildParameters config : configs) {
             Action a = config.getAction(build, listener);
             if (a instanceof ParametersAction) {
-                params = params == null
-                        ? (ParametersAction) a
-                        : ParameterizedTriggerUtils.mergeParameters(params, (ParametersAction) a);
+                if (params == null) {
+                    params = (ParametersAction) a;
+                } else {
+                    // merge every further source into one map rather than copying the parameters each time
+                    if (merged == null) {
+                        merged = new ParametersBuilder(params);
+                    }
+                    merged.add((ParametersAction) a);
+                }
             } else if (a != null) {
                 actions.add(a);
             }
         }
+        if (merged != null) params = merged.build();
         if (params != null) actions.add(params);
         return actions;
     }
 
     List<Action> getBuildActions(List<Action> baseActions, Job<?, ?> project) {
-        List<Action> actions = new ArrayList<>(baseActions);
-
         ProjectSpecificParametersActionFactory transformer = new ProjectSpecificParametersActionFactory(
                 new ProjectSpecificParameterValuesActionTransform(), new DefaultParameterValuesActionsTransform());
 
+        return getBuildActions(baseActions, project, transformer);
+    }
+
+    private static List<Action> getBuildActions(
+            List<Action> baseActions, Job<?, ?> project, ProjectSpecificParametersActionFactory transformer) {
+        List<Action> actions = new ArrayList<>(baseActions);
+
         return transformer.getProjectSpecificBuildActions(actions, project);
     }
 
@@ -408,27 +590,7 @@ public class BuildTriggerConfig implements Describable<BuildTriggerConfig> {
 
         try {
             if (condition.isMet(build.getResult())) {
-                QueueTaskFuture future = null;
-                List<QueueTaskFuture<AbstractBuild>> futures = new ArrayList<>();
-
-                for (List<AbstractBuildParameters> addConfigs : getDynamicBuildParameters(build, listener)) {
-                    List<AbstractBuildParameters> buildParams = new ArrayList<>(configs);
-                    buildParams.addAll(addConfigs);
-                    buildParams = Collections.unmodifiableList(buildParams);
-                    List<Action> actions = getBaseActions(buildParams, build, listener);
-                    for (Job project : getJobs(build.getRootBuild().getProject().getParent(), env)) {
-                        List<Action> list = getBuildActions(actions, project);
-                        // Future can be null as schedule can return null
-                        future = schedule(build, project, list, listener);
-                        if (future != null) {
-                            futures.add(future);
-                        } else {
-                            reportSchedulingError(build, project, listener);
-                        }
-                    }
-                }
-
-                return futures;
+                return scheduleBuilds(build, env, listener, false).getFuturesInOrder();
             }
         } catch (DontTriggerException e) {
             // don't trigger on this configuration
@@ -436,7 +598,57 @@ public class BuildTriggerConfig implements Describable<BuildTriggerConfig> {
         return Collections.emptyList();
     }
 
-    private void reportSchedulingError(
+    /**
+     * Triggers the projects of a throttled config from a post-build action. The builds are scheduled in the
+     * background as the throttle allows, so that the triggering build does not keep its executor while it waits.
+     */
+    void performInBackground(AbstractBuild<?, ?> build, BuildListener listener)
+            throws InterruptedException, IOException {
+        EnvVars env = build.getEnvironment(listener);
+        env.overrideAll(build.getBuildVariables());
+
+        try {
+            if (condition.isMet(build.getResult())) {
+                scheduleBuilds(build, env, listener, true);
+            }
+        } catch (DontTriggerException e) {
+            // don't trigger on this configuration
+        }
+    }
+
+    /**
+     * Schedules a build of every job for every parameter combination.
+     *
+     * @param inBackground whether the builds of a throttled config are scheduled in the background
+     * @return the scheduler holding the scheduled builds
+     */
+    private TriggeredBuildsScheduler scheduleBuilds(
+            AbstractBuild<?, ?> build, EnvVars env, BuildListener listener, boolean inBackground)
+            throws InterruptedException, IOException, DontTriggerException {
+        ExpandedProjectNamesAction.record(build, this, env);
+        TriggeredBuildsScheduler scheduler = new TriggeredBuildsScheduler(this, build, listener, inBackground);
+        List<Job> jobs = getJobs(build.getRootBuild().getProject().getParent(), env);
+        // shared by every combination, so the defaults of each job are evaluated once
+        ProjectSpecificParametersActionFactory transformer = new ProjectSpecificParametersActionFactory(
+                new ProjectSpecificParameterValuesActionTransform(),
+                DefaultParameterValuesActionsTransform.evaluatingDefaultsOnce());
+        List<Action> baseActions = null;
+        for (List<AbstractBuildParameters> addConfigs : getDynamicBuildParameters(build, listener)) {
+            // the static parameters are evaluated once, the parameters of each combination are layered on top
+            if (baseActions == null) {
+                baseActions = getBaseActions(build, listener);
+            }
+            List<Action> actions =
+                    addConfigs.isEmpty() ? baseActions : getBaseActions(baseActions, addConfigs, build, listener);
+            for (Job project : jobs) {
+                scheduler.add(project, getBuildActions(actions, project, transformer));
+            }
+        }
+        scheduler.finish();
+        return scheduler;
+    }
+
+    /*package*/ void reportSchedulingError(
             @NonNull Run<?, ?> run, @NonNull Job<?, ?> jobToTrigger, @NonNull BuildListener listener) {
         // Do not print details to Build Listener, they have been reported previously in #canTriggerProject()
         listener.error("Skipping " + jobToTrigger.getFullName() + "...");
@@ -485,23 +697,7 @@ public class BuildTriggerConfig implements Describable<BuildTriggerConfig> {
 
         try {
             if (getCondition().isMet(build.getResult())) {
-                ListMultimap<Job, QueueTaskFuture<AbstractBuild>> futures = ArrayListMultimap.create();
-
-                for (List<AbstractBuildParameters> addConfigs : getDynamicBuildParameters(build, listener)) {
-                    List<Action> actions =
-                            getBaseActions(CollectionUtils.immutableList(configs, addConfigs), build, listener);
-                    for (Job project : getJobs(build.getRootBuild().getProject().getParent(), env)) {
-                        List<Action> list = getBuildActions(actions, project);
-
-                        final QueueTaskFuture scheduled = schedule(build, project, list, listener);
-                        if (scheduled != null) {
-                            futures.put(project, scheduled);
-                        } else {
-                            reportSchedulingError(build, project, listener);
-                        }
-                    }
-                }
-                return futures;
+                return scheduleBuilds(build, env, listener, false).getFutures();
             }
         } catch (DontTriggerException e) {
             // don't trigger on this configuration
@@ -513,6 +709,7 @@ public class BuildTriggerConfig implements Describable<BuildTriggerConfig> {
      * @return
      *      Inner list represents a set of build parameters used together for one invocation of a project,
      *      and outer list represents multiple invocations of the same project.
+     *      The combinations are computed as they are iterated, the first factory varying fastest.
      */
     private List<List<AbstractBuildParameters>> getDynamicBuildParameters(
             AbstractBuild<?, ?> build, BuildListener listener)
@@ -520,24 +717,24 @@ public class BuildTriggerConfig implements Describable<BuildTriggerConfig> {
         if (configFactories == null || configFactories.isEmpty()) {
             return Collections.singletonList(Collections.emptyList());
         } else {
-            // this code is building the combinations of all AbstractBuildParameters reported from all factories
-            List<List<AbstractBuildParameters>> dynamicBuildParameters = new ArrayList();
-            dynamicBuildParameters.add(Collections.emptyList());
+            // the last list of a cartesian product varies fastest, so the factories are added in reverse order
+            List<List<AbstractBuildParameters>> factoriesParameters = new ArrayList<>();
+            long combinations = 1;
             for (AbstractBuildParameterFactory configFactory : configFactories) {
-                List<List<AbstractBuildParameters>> newDynParameters = new ArrayList();
                 List<AbstractBuildParameters> factoryParameters = configFactory.getParameters(build, listener);
-                // if factory returns 0 parameters we need to skip assigning newDynParameters to dynamicBuildParameters
-                // as we would add invalid list
+                // if factory returns 0 parameters we need to skip it as we would not trigger anything
                 if (factoryParameters.size() > 0) {
-                    for (AbstractBuildParameters config : factoryParameters) {
-                        for (List<AbstractBuildParameters> dynamicBuildParameter : dynamicBuildParameters) {
-                            newDynParameters.add(CollectionUtils.immutableList(dynamicBuildParameter, config));
-                        }
-                    }
-                    dynamicBuildParameters = newDynParameters;
+                    factoriesParameters.add(0, factoryParameters);
+                    combinations = LongMath.saturatedMultiply(combinations, factoryParameters.size());
                 }
             }
-            return dynamicBuildParameters;
+            long maxCombinations = MAX_COMBINATIONS > 0 ? MAX_COMBINATIONS : Integer.MAX_VALUE;
+            if (combinations > maxCombinations) {
+                throw new AbortException("Build aborted. The parameter factories produce " + combinations
+                        + " combinations, more than the maximum of " + maxCombinations
+                        + ". Check your configuration!");
+            }
+            return Lists.transform(Lists.cartesianProduct(factoriesParameters), Lists::reverse);
         }
     }
 
@@ -613,6 +810,70 @@ public class BuildTriggerConfig implements Describable<BuildTriggerConfig> {
         return null;
     }
 
+    /**
+     * Does everything {@link #schedule(AbstractBuild, Job, List, TaskListener)} does before submitting the build to
+     * the queue, so that {@link TriggeredBuildsScheduler} only has to submit it while it holds the
+     * {@link hudson.model.Queue} lock.
+     *
+     * @return the build to submit, or {@code null} if it cannot be scheduled
+     */
+    @CheckForNull
+    /*package*/ TriggeredBuildsScheduler.Submission prepareSchedule(
+            @NonNull AbstractBuild<?, ?> build,
+            @NonNull Job project,
+            @NonNull List<Action> list,
+            @NonNull TaskListener listener)
+            throws InterruptedException, IOException {
+        if (!(project instanceof ParameterizedJobMixIn.ParameterizedJob)) {
+            return null;
+        }
+        return prepareSchedule(
+                build, project, ((ParameterizedJobMixIn.ParameterizedJob) project).getQuietPeriod(), list, listener);
+    }
+
+    /**
+     * @see #prepareSchedule(AbstractBuild, Job, List, TaskListener)
+     */
+    @CheckForNull
+    /*package*/ TriggeredBuildsScheduler.Submission prepareSchedule(
+            @NonNull AbstractBuild<?, ?> build,
+            @NonNull Job project,
+            int quietPeriod,
+            @NonNull List<Action> list,
+            @NonNull TaskListener listener)
+            throws InterruptedException, IOException {
+        // the same checks and actions as schedule and ParameterizedJobMixIn.scheduleBuild2
+        if (!(project instanceof ParameterizedJobMixIn.ParameterizedJob)
+                || !canTriggerProject(build, project, listener)
+                || !project.isBuildable()) {
+            return null;
+        }
+        List<Action> queueActions = new ArrayList<>(list);
+        queueActions.add(new CauseAction(createUpstreamCause(build)));
+        ParametersDefinitionProperty property =
+                (ParametersDefinitionProperty) project.getProperty(ParametersDefinitionProperty.class);
+        if (property != null && Util.filter(queueActions, ParametersAction.class).isEmpty()) {
+            List<ParameterValue> defaults = new ArrayList<>();
+            for (ParameterDefinition definition : property.getParameterDefinitions()) {
+                ParameterValue value = definition.getDefaultParameterValue();
+                if (value != null) {
+                    defaults.add(value);
+                }
+            }
+            queueActions.add(new ParametersAction(defaults));
+        }
+        return new TriggeredBuildsScheduler.Submission((Queue.Task) project, quietPeriod, queueActions);
+    }
+
+    /**
+     * @return {@code true} if {@link #schedule(AbstractBuild, Job, List, TaskListener)} keeps retrying a build the
+     *         queue refused, so a build refused by a {@link TriggeredBuildsScheduler.Submission} is worth
+     *         scheduling again.
+     */
+    /*package*/ boolean retriesRefusedBuilds() {
+        return false;
+    }
+
     /**
      * Checks if the build can trigger a project.
      * @param build Build, which is about to trigger the project
@@ -682,24 +943,84 @@ public class BuildTriggerConfig implements Describable<BuildTriggerConfig> {
     public boolean onJobRenamed(ItemGroup context, String oldName, String newName) {
         String newProjects = hudson.model.Items.computeRelativeNamesAfterRenaming(oldName, newName, projects, context);
         boolean changed = !projects.equals(newProjects);
-        projects = newProjects;
+        setProjects(newProjects);
         return changed;
     }
 
     public boolean onDeleted(ItemGroup context, String oldName) {
         List<String> newNames = new ArrayList<>();
-        StringTokenizer tokens = new StringTokenizer(projects, ",");
-        while (tokens.hasMoreTokens()) {
-            String relativeName = tokens.nextToken().trim();
+        for (String relativeName : getProjectNames().getNames()) {
             String fullName = Items.getCanonicalName(context, relativeName);
             if (!fullName.equals(oldName)) newNames.add(relativeName);
         }
         String newProjects = String.join(",", newNames);
         boolean changed = !projects.equals(newProjects);
-        projects = newProjects;
+        setProjects(newProjects);
         return changed;
     }
 
+    private void setProjects(String projects) {
+        this.projects = projects;
+        this.projectNames = ProjectNames.parse(projects);
+    }
+
+    /**
+     * The jobs a list of names resolved to in a given context.
+     */
+    private static final class ResolvedJobs {
+        private final ItemGroup context;
+        private final List<String> names;
+        private final long generation;
+        private final List<Job> jobs;
+
+        ResolvedJobs(ItemGroup context, List<String> names, long generation, List<Job> jobs) {
+            this.context = context;
+            this.names = names;
+            this.generation = generation;
+            this.jobs = Collections.unmodifiableList(jobs);
+        }
+
+        boolean matches(ItemGroup context, List<String> names, long generation) {
+            return this.context == context && this.names.equals(names) && this.generation == generation;
+        }
+    }
+
+    /**
+     * Invalidates the resolved jobs of every config when the set of jobs changes.
+     */
+    @Extension
+    public static final class ResolvedJobsInvalidator extends ItemListener {
+        @Override
+        public void onCreated(Item item) {
+            ITEMS_GENERATION.incrementAndGet();
+        }
+
+        @Override
+        public void onCopied(Item src, Item item) {
+            ITEMS_GENERATION.incrementAndGet();
+        }
+
+        @Override
+        public void onRenamed(Item item, String oldName, String newName) {
+            ITEMS_GENERATION.incrementAndGet();
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            ITEMS_GENERATION.incrementAndGet();
+        }
+
+        @Override
+        public void onDeleted(Item item) {
+            ITEMS_GENERATION.incrementAndGet();
+        }
+
+        @Override
+        public void onLoaded() {
+            ITEMS_GENERATION.incrementAndGet();
+        }
+    }
+
     public Descriptor<BuildTriggerConfig> getDescriptor() {
         return Jenkins.getInstance().getDescriptorOrDie(getClass());
     }
@@ -742,38 +1063,52 @@ public class BuildTriggerConfig implements Describable<BuildTriggerConfig> {
             if (!project.hasPermission(Item.CONFIGURE)) {
                 return FormValidation.ok();
             }
-            StringTokenizer tokens = new StringTokenizer(Util.fixNull(value), ",");
             boolean hasProjects = false;
-            while (tokens.hasMoreTokens()) {
-                String projectName = tokens.nextToken().trim();
+            List<FormValidation> errors = new ArrayList<>();
+            // computed once for all the names, as is the permission of each job
+            Authentication auth = null;
+            Map<Item, Boolean> canBuild = new HashMap<>();
+            for (String projectName : ProjectNames.parse(value).getNames()) {
                 if (projectName.isBlank()) {
-                    return FormValidation.error("Blank project name in the list");
+                    errors.add(FormValidation.error("Blank project name in the list"));
+                    continue;
                 }
 
                 Item item = Jenkins.get().getItem(projectName, project, Item.class); // only works after version 1.410
                 if (item == null) {
-                    Item nearest = Items.findNearest(Job.class, projectName, Jenkins.get());
-                    String alternative = nearest != null ? nearest.getRelativeNameFrom(project) : "?";
-                    return FormValidation.error(Messages.BuildTrigger_NoSuchProject(projectName, alternative));
+                    String nearest = JobNameIndex.findNearest(projectName);
+                    Item nearestItem = nearest != null ? JobNameIndex.getReadableJob(nearest) : null;
+                    String alternative = nearestItem != null ? nearestItem.getRelativeNameFrom(project) : "?";
+                    errors.add(FormValidation.error(Messages.BuildTrigger_NoSuchProject(projectName, alternative)));
+                    continue;
                 }
                 if (!(item instanceof Job) || !(item instanceof ParameterizedJobMixIn.ParameterizedJob)) {
-                    return FormValidation.error(Messages.BuildTrigger_NotBuildable(projectName));
+                    errors.add(FormValidation.error(Messages.BuildTrigger_NotBuildable(projectName)));
+                    continue;
                 }
 
                 // check whether the supposed user is expected to be able to build
-                Authentication auth = Tasks.getAuthenticationOf((ParameterizedJobMixIn.ParameterizedJob) project);
-                if (auth.equals(ACL.SYSTEM)
-                        && !QueueItemAuthenticatorConfiguration.get()
-                                .getAuthenticators()
-                                .isEmpty()) {
-                    auth = Jenkins.ANONYMOUS;
+                if (auth == null) {
+                    auth = Tasks.getAuthenticationOf((ParameterizedJobMixIn.ParameterizedJob) project);
+                    if (auth.equals(ACL.SYSTEM)
+                            && !QueueItemAuthenticatorConfiguration.get()
+                                    .getAuthenticators()
+                                    .isEmpty()) {
+                        auth = Jenkins.ANONYMOUS;
+                    }
                 }
-                if (!item.getACL().hasPermission(auth, Item.BUILD)) {
-                    return FormValidation.error(Messages.BuildTrigger_you_have_no_permission_to_build_(projectName));
+                Authentication buildAuth = auth;
+                if (!canBuild.computeIfAbsent(item, i -> i.getACL().hasPermission(buildAuth, Item.BUILD))) {
+                    errors.add(
+                            FormValidation.error(Messages.BuildTrigger_you_have_no_permission_to_build_(projectName)));
+                    continue;
                 }
 
                 hasProjects = true;
             }
+            if (!errors.isEmpty()) {
+                return FormValidation.aggregate(errors);
+            }
             if (!hasProjects) {
                 return FormValidation.error(Messages.BuildTrigger_NoProjectSpecified());
             }
@@ -793,16 +1128,42 @@ public class BuildTriggerConfig implements Describable<BuildTriggerConfig> {
         public AutoCompletionCandidates doAutoCompleteProjects(
                 @QueryParameter String value, @AncestorInPath ItemGroup context) {
             AutoCompletionCandidates candidates = new AutoCompletionCandidates();
-            List<Job> jobs = Jenkins.get().getAllItems(Job.class);
-            for (Job job : jobs) {
-                String relativeName = job.getRelativeNameFrom(context);
-                if (relativeName.startsWith(value)) {
-                    if (job.hasPermission(Item.READ)) {
+            value = value == null ? "" : value;
+            context = context == null ? Jenkins.get() : context;
+            int found = 0;
+            for (String fullName : JobNameIndex.getNamesStartingWith(getAutoCompletePrefix(value, context))) {
+                if (AUTO_COMPLETE_LIMIT > 0 && found >= AUTO_COMPLETE_LIMIT) {
+                    break;
+                }
+                // only the jobs the user can read are found
+                Job job = JobNameIndex.getReadableJob(fullName);
+                if (job != null) {
+                    String relativeName = job.getRelativeNameFrom(context);
+                    if (relativeName.startsWith(value)) {
                         candidates.add(relativeName);
+                        found++;
                     }
                 }
             }
             return candidates;
         }
+
+        /**
+         * @return the prefix of the full names of the jobs whose name relative to the context may start with the value
+         */
+        private static String getAutoCompletePrefix(String value, ItemGroup context) {
+            String base = context.getFullName();
+            String rest = value;
+            while (rest.startsWith("../")) {
+                int slash = base.lastIndexOf('/');
+                base = slash < 0 ? "" : base.substring(0, slash);
+                rest = rest.substring(3);
+            }
+            if (rest.isEmpty() || "../".startsWith(rest)) {
+                // any job outside of the base has a relative name starting with "../"
+                return "";
+            }
+            return base.isEmpty() ? rest : base + "/" + rest;
+        }
     }
 }
@@ -2,24 +2,66 @@ package hudson.plugins.parameterizedtrigger;
 
 import hudson.model.*;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
 
 /**
  * Ensure the given project's parameters with default values exist in the parameter list.
  *
  * If they do not, append them with the specified default value.
  */
-public class DefaultParameterValuesActionsTransform implements ITransformProjectParametersAction {
+public class DefaultParameterValuesActionsTransform
+        implements ITransformProjectParametersAction, ParametersBuilder.Transform {
+
+    /**
+     * The default values by project, {@code null} to evaluate them on every call.
+     */
+    private final Map<Job<?, ?>, List<ParameterValue>> defaults;
+
+    public DefaultParameterValuesActionsTransform() {
+        this(null);
+    }
+
+    private DefaultParameterValuesActionsTransform(Map<Job<?, ?>, List<ParameterValue>> defaults) {
+        this.defaults = defaults;
+    }
+
+    /**
+     * Default values may change from one build to the next, so the returned transform is only meant for the builds
+     * triggered at once.
+     *
+     * @return a transform evaluating the default values of each project once
+     */
+    static DefaultParameterValuesActionsTransform evaluatingDefaultsOnce() {
+        return new DefaultParameterValuesActionsTransform(new ConcurrentHashMap<>());
+    }
+
     public ParametersAction transformParametersAction(ParametersAction a, Job<?, ?> project) {
-        return ParameterizedTriggerUtils.mergeParameters(getDefaultParameters(project), a);
+        return ParameterizedTriggerUtils.mergeParameters(new ParametersAction(getDefaultValues(project)), a);
+    }
+
+    @Override
+    @Restricted(NoExternalUse.class)
+    public void transform(ParametersBuilder parameters, Job<?, ?> project) {
+        parameters.addAllFirst(getDefaultValues(project));
+    }
+
+    private List<ParameterValue> getDefaultValues(Job<?, ?> project) {
+        return defaults != null
+                ? defaults.computeIfAbsent(project, DefaultParameterValuesActionsTransform::evaluateDefaultValues)
+                : evaluateDefaultValues(project);
     }
 
-    private static ParametersAction getDefaultParameters(Job<?, ?> project) {
+    private static List<ParameterValue> evaluateDefaultValues(Job<?, ?> project) {
 
         ParametersDefinitionProperty property = project.getProperty(ParametersDefinitionProperty.class);
 
         if (property == null) {
-            return new ParametersAction();
+            return Collections.emptyList();
         }
 
         List<ParameterValue> parameters = new ArrayList<>();
@@ -30,6 +72,6 @@ public class DefaultParameterValuesActionsTransform implements ITransformProject
             }
         }
 
-        return new ParametersAction(parameters);
+        return parameters;
     }
 }
@@ -0,0 +1,114 @@
+package hudson.plugins.parameterizedtrigger;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.Extension;
+import hudson.model.Project;
+import hudson.model.listeners.ItemListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Saves the projects whose trigger configs were changed by renamed or deleted jobs in the background, so that the
+ * rename or delete does not wait for them. A project changed several times before it is written, e.g. by the jobs of a
+ * moved folder, is written once.
+ *
+ * <p>At most {@link #CAPACITY} projects wait to be saved, further ones are saved right away. The waiting projects are
+ * saved before Jenkins shuts down.
+ */
+@Restricted(NoExternalUse.class)
+public final class DeferredProjectSaver {
+
+    private static final Logger LOGGER = Logger.getLogger(DeferredProjectSaver.class.getName());
+
+    /**
+     * Maximum number of projects waiting to be saved.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "non-final for script console")
+    static int CAPACITY = SystemProperties.getInteger(DeferredProjectSaver.class.getName() + ".capacity", 1000);
+
+    /**
+     * Milliseconds to collect changed projects before saving them.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "non-final for script console")
+    static long DELAY = SystemProperties.getLong(DeferredProjectSaver.class.getName() + ".delay", 500L);
+
+    private static final ScheduledExecutorService SAVER = Executors.newSingleThreadScheduledExecutor(
+            new NamingThreadFactory(new DaemonThreadFactory(), "Parameterized trigger project saver"));
+
+    private static final Set<Project<?, ?>> pending = new LinkedHashSet<>();
+    private static boolean scheduled;
+
+    private DeferredProjectSaver() {}
+
+    /**
+     * Saves the project later, or now if too many projects are waiting already.
+     */
+    static void save(Project<?, ?> p) {
+        synchronized (DeferredProjectSaver.class) {
+            if (pending.contains(p)) {
+                return;
+            }
+            if (pending.size() < CAPACITY) {
+                pending.add(p);
+                if (!scheduled) {
+                    scheduled = true;
+                    SAVER.schedule(DeferredProjectSaver::flush, DELAY, TimeUnit.MILLISECONDS);
+                }
+                return;
+            }
+        }
+        saveNow(p);
+    }
+
+    /**
+     * Saves the projects waiting to be saved.
+     */
+    static void flush() {
+        List<Project<?, ?>> projects;
+        synchronized (DeferredProjectSaver.class) {
+            projects = new ArrayList<>(pending);
+            pending.clear();
+            scheduled = false;
+        }
+        for (Project<?, ?> p : projects) {
+            saveNow(p);
+        }
+    }
+
+    private static void saveNow(Project<?, ?> p) {
+        try (ACLContext ctx = ACL.as2(ACL.SYSTEM2)) {
+            // saving a project deleted in the meantime would bring its directory back
+            Jenkins jenkins = Jenkins.getInstanceOrNull();
+            if (jenkins == null || jenkins.getItemByFullName(p.getFullName(), Project.class) != p) {
+                return;
+            }
+            p.save();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to persist project setting of " + p.getFullName(), e);
+        }
+    }
+
+    @Extension
+    public static final class ShutdownListener extends ItemListener {
+        @Override
+        public void onBeforeShutdown() {
+            flush();
+        }
+    }
+}
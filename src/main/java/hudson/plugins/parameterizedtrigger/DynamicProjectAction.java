@@ -18,11 +18,7 @@ public class DynamicProjectAction implements Action {
     public List<String> getProjects() {
         List<String> projects = new ArrayList<>();
         for (BuildTriggerConfig config : configs) {
-            for (String project : config.getProjects().split(",")) {
-                if (project.trim().contains("$")) {
-                    projects.add(project.trim());
-                }
-            }
+            projects.addAll(config.getProjectNames().getDynamicNames());
         }
         return projects;
     }
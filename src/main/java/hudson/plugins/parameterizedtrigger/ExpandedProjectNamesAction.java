@@ -0,0 +1,98 @@
+package hudson.plugins.parameterizedtrigger;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import hudson.EnvVars;
+import hudson.model.InvisibleAction;
+import hudson.model.Run;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Records what the dynamic project names of the trigger configs expanded to when a build triggered them, so that they
+ * need not be expanded again from the environment of the build later on.
+ *
+ * <p>The names are recorded per config, as two configs of a build may use the same dynamic name with a different
+ * environment, e.g. two build steps with a variable set in between. Once the build is reloaded, the names can only be
+ * looked up by dynamic name.
+ */
+public class ExpandedProjectNamesAction extends InvisibleAction {
+
+    private final List<Expansion> expansions = new ArrayList<>();
+
+    /**
+     * Records the expansion of the dynamic names of a config on the build.
+     */
+    static void record(Run<?, ?> build, BuildTriggerConfig config, EnvVars env) {
+        ProjectNames names = config.getProjectNames();
+        if (!names.isDynamic()) {
+            return;
+        }
+        ExpandedProjectNamesAction action;
+        // configs may trigger concurrently, e.g. from the builds of a matrix, they have to share one action
+        synchronized (build) {
+            action = build.getAction(ExpandedProjectNamesAction.class);
+            if (action == null) {
+                action = new ExpandedProjectNamesAction();
+                build.addAction(action);
+            }
+        }
+        action.put(config, names.expandEach(env));
+    }
+
+    private synchronized void put(BuildTriggerConfig config, Map<String, List<String>> names) {
+        // the last trigger of a config wins
+        expansions.removeIf(e -> e.config == config);
+        for (Map.Entry<String, List<String>> entry : names.entrySet()) {
+            expansions.add(new Expansion(config, entry.getKey(), entry.getValue()));
+        }
+    }
+
+    /**
+     * @param config the config that triggered the projects
+     * @param dynamicName a project name containing variables, as configured
+     * @return the names it expanded to, {@code null} if the config did not expand it in this build
+     */
+    @CheckForNull
+    synchronized List<String> getExpandedNames(BuildTriggerConfig config, String dynamicName) {
+        for (Expansion e : expansions) {
+            if (e.config == config && e.dynamicName.equals(dynamicName)) {
+                return new ArrayList<>(e.names);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param dynamicName a project name containing variables, as configured
+     * @return the names it expanded to in any config, {@code null} if it was not expanded by this build
+     */
+    @CheckForNull
+    public synchronized List<String> getExpandedNames(String dynamicName) {
+        Set<String> names = null;
+        for (Expansion e : expansions) {
+            if (e.dynamicName.equals(dynamicName)) {
+                if (names == null) {
+                    names = new LinkedHashSet<>();
+                }
+                names.addAll(e.names);
+            }
+        }
+        return names != null ? new ArrayList<>(names) : null;
+    }
+
+    private static final class Expansion {
+        // only known until the build is reloaded
+        private final transient BuildTriggerConfig config;
+        private final String dynamicName;
+        private final List<String> names;
+
+        Expansion(BuildTriggerConfig config, String dynamicName, List<String> names) {
+            this.config = config;
+            this.dynamicName = dynamicName;
+            this.names = names;
+        }
+    }
+}
@@ -10,8 +10,11 @@ import hudson.FilePath;
 import hudson.Util;
 import hudson.model.AbstractBuild;
 import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
 import hudson.util.FormValidation;
+import java.io.File;
 import java.io.IOException;
+import java.io.Serializable;
 import java.nio.charset.Charset;
 import java.nio.charset.IllegalCharsetNameException;
 import java.nio.charset.UnsupportedCharsetException;
@@ -19,6 +22,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import jenkins.MasterToSlaveFileCallable;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.QueryParameter;
 
@@ -110,15 +114,16 @@ public class FileBuildParameterFactory extends AbstractBuildParameterFactory {
 
         try {
             FilePath workspace = getWorkspace(build);
-            FilePath[] files = workspace.list(env.expand(getFilePattern()));
-            if (files.length == 0) {
+            // the null encoding stands for the default encoding of the controller, not of the agent
+            String encoding = getEncoding() != null ? getEncoding() : Charset.defaultCharset().name();
+            List<ParametersFile> files = workspace.act(new ReadParametersFiles(env.expand(getFilePattern()), encoding));
+            if (files.isEmpty()) {
                 noFilesFoundAction.failCheck(listener);
             } else {
-                for (FilePath f : files) {
-                    String parametersStr = ParameterizedTriggerUtils.readFileToString(f, getEncoding());
+                for (ParametersFile f : files) {
                     Logger.getLogger(FileBuildParameterFactory.class.getName())
-                            .log(Level.INFO, null, "Triggering build with " + f.getName());
-                    result.add(new PredefinedBuildParameters(parametersStr));
+                            .log(Level.INFO, null, "Triggering build with " + f.name);
+                    result.add(new PredefinedBuildParameters(f.content));
                 }
             }
         } catch (IOException ex) {
@@ -136,6 +141,49 @@ public class FileBuildParameterFactory extends AbstractBuildParameterFactory {
         return workspace;
     }
 
+    /**
+     * The name and content of a matching file.
+     */
+    private static final class ParametersFile implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        final String name;
+        final String content;
+
+        ParametersFile(String name, String content) {
+            this.name = name;
+            this.content = content;
+        }
+    }
+
+    /**
+     * Lists and reads the matching files on the agent, so that they are all returned in one round trip.
+     *
+     * <p>The files are not parsed there, as {@link PredefinedBuildParameters} expands the variables of the build in
+     * their content before parsing it.
+     */
+    private static final class ReadParametersFiles extends MasterToSlaveFileCallable<List<ParametersFile>> {
+        private static final long serialVersionUID = 1L;
+
+        private final String pattern;
+        private final String encoding;
+
+        ReadParametersFiles(String pattern, String encoding) {
+            this.pattern = pattern;
+            this.encoding = encoding;
+        }
+
+        @Override
+        public List<ParametersFile> invoke(File workspace, VirtualChannel channel)
+                throws IOException, InterruptedException {
+            List<ParametersFile> files = new ArrayList<>();
+            for (FilePath f : new FilePath(workspace).list(pattern)) {
+                files.add(new ParametersFile(f.getName(), ParameterizedTriggerUtils.readFileToString(f, encoding)));
+            }
+            return files;
+        }
+    }
+
     @Extension
     public static class DescriptorImpl extends AbstractBuildParameterFactoryDescriptor {
         @Override
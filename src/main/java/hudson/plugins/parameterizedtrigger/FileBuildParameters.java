@@ -1,5 +1,6 @@
 package hudson.plugins.parameterizedtrigger;
 
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.EnvVars;
 import hudson.Extension;
 import hudson.FilePath;
@@ -17,24 +18,71 @@ import hudson.model.ParametersAction;
 import hudson.model.StringParameterValue;
 import hudson.model.TaskListener;
 import hudson.model.TextParameterValue;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.DaemonThreadFactory;
 import hudson.util.FormValidation;
+import hudson.util.NamingThreadFactory;
+import hudson.util.StreamTaskListener;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
 import java.nio.charset.UnsupportedCharsetException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import jenkins.model.Jenkins;
+import jenkins.util.ClassLoaderSanityThreadFactory;
+import jenkins.util.SystemProperties;
 import jenkins.util.VirtualFile;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.QueryParameter;
+import org.springframework.security.core.Authentication;
 
 public class FileBuildParameters extends AbstractBuildParameters {
+
+    /**
+     * Maximum number of matrix children of a build whose properties files are read at the same time, 1 to read them
+     * one by one.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "non-final for script console")
+    static int MAX_PARALLEL_READS =
+            SystemProperties.getInteger(FileBuildParameters.class.getName() + ".maxParallelReads", 1);
+
+    /**
+     * Number of threads shared by all the builds reading properties files in parallel.
+     */
+    private static final int READER_THREADS =
+            SystemProperties.getInteger(FileBuildParameters.class.getName() + ".readerThreads", 4);
+
+    private static final ThreadPoolExecutor READERS = new ThreadPoolExecutor(
+            READER_THREADS,
+            READER_THREADS,
+            60,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            new ClassLoaderSanityThreadFactory(new NamingThreadFactory(
+                    new DaemonThreadFactory(), "Parameterized trigger properties file reader")));
+
+    static {
+        READERS.allowCoreThreadTimeOut(true);
+    }
+
     private final String propertiesFile;
     private final String encoding;
     private final boolean failTriggerOnMissing;
@@ -112,13 +160,91 @@ public class FileBuildParameters extends AbstractBuildParameters {
         // builds to scan.
         Collection<? extends AbstractBuild<?, ?>> targetBuilds = getTargetBuilds(build);
 
-        for (AbstractBuild<?, ?> targetBuild : targetBuilds) {
-            values.addAll(extractAllValues(targetBuild, listener, trimmedFiles));
+        if (targetBuilds.size() > 1 && MAX_PARALLEL_READS > 1) {
+            values.addAll(extractAllValuesInParallel(new ArrayList<>(targetBuilds), listener, trimmedFiles));
+        } else {
+            for (AbstractBuild<?, ?> targetBuild : targetBuilds) {
+                values.addAll(extractAllValues(targetBuild, listener, trimmedFiles));
+            }
         }
         // Values might be empty, in that case don't return anything.
         return values.size() == 0 ? null : new ParametersAction(values);
     }
 
+    /**
+     * Reads the files of the matrix children with up to {@link #MAX_PARALLEL_READS} threads, the calling one and
+     * threads of {@link #READERS}, so that the reads go on when all the shared threads are busy. The output of each
+     * child is buffered and its values merged in the order of the children, so the result and the log are the same as
+     * when reading them one by one.
+     */
+    private List<ParameterValue> extractAllValuesInParallel(
+            List<AbstractBuild<?, ?>> targetBuilds, TaskListener listener, String[] allFiles)
+            throws IOException, InterruptedException, DontTriggerException {
+        int count = targetBuilds.size();
+        List<List<ParameterValue>> targetValues = new ArrayList<>(Collections.nCopies(count, null));
+        List<ByteArrayOutputStream> logs = new ArrayList<>(Collections.nCopies(count, null));
+        List<Exception> failures = new ArrayList<>(Collections.nCopies(count, null));
+        AtomicInteger next = new AtomicInteger();
+        AtomicBoolean failed = new AtomicBoolean();
+        Authentication auth = Jenkins.getAuthentication2();
+
+        Runnable reader = () -> {
+            try (ACLContext ctx = ACL.as2(auth)) {
+                int i;
+                while (!failed.get() && (i = next.getAndIncrement()) < count) {
+                    ByteArrayOutputStream log = new ByteArrayOutputStream();
+                    logs.set(i, log);
+                    try {
+                        targetValues.set(
+                                i,
+                                extractAllValues(
+                                        targetBuilds.get(i),
+                                        new StreamTaskListener(log, StandardCharsets.UTF_8),
+                                        allFiles));
+                    } catch (Exception e) {
+                        failures.set(i, e);
+                        failed.set(true);
+                    }
+                }
+            }
+        };
+        List<Future<?>> readers = new ArrayList<>();
+        try {
+            for (int i = 1; i < Math.min(count, MAX_PARALLEL_READS); i++) {
+                readers.add(READERS.submit(reader));
+            }
+            reader.run();
+            for (Future<?> future : readers) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        } finally {
+            for (Future<?> future : readers) {
+                future.cancel(true);
+            }
+        }
+
+        List<ParameterValue> values = new ArrayList<>();
+        for (int i = 0; i < count && logs.get(i) != null; i++) {
+            logs.get(i).writeTo(listener.getLogger());
+            Exception failure = failures.get(i);
+            if (failure instanceof DontTriggerException) {
+                throw (DontTriggerException) failure;
+            } else if (failure instanceof IOException) {
+                throw (IOException) failure;
+            } else if (failure instanceof InterruptedException) {
+                throw (InterruptedException) failure;
+            } else if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            } else if (failure != null) {
+                throw new IOException(failure);
+            }
+            values.addAll(targetValues.get(i));
+        }
+        return values;
+    }
+
     private List<ParameterValue> extractAllValues(AbstractBuild<?, ?> build, TaskListener listener, String[] allFiles)
             throws IOException, InterruptedException, DontTriggerException {
         List<ParameterValue> values = new ArrayList<>();
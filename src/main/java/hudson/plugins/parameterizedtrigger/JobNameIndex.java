@@ -0,0 +1,212 @@
+package hudson.plugins.parameterizedtrigger;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import hudson.Extension;
+import hudson.model.Item;
+import hudson.model.Items;
+import hudson.model.Job;
+import hudson.model.listeners.ItemListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.EditDistance;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import jenkins.model.Jenkins;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * The sorted full names of all jobs, so that the jobs whose name starts with a given prefix can be found without
+ * going through every job.
+ *
+ * <p>The names are collected the first time they are needed, then kept up to date as jobs are created, moved and
+ * deleted. The index holds every job; callers look the jobs up to check that the user can see them.
+ */
+@Restricted(NoExternalUse.class)
+public final class JobNameIndex {
+
+    private static final NavigableSet<String> names = new ConcurrentSkipListSet<>();
+    private static volatile boolean built;
+    private static final AtomicLong generation = new AtomicLong();
+
+    /**
+     * The nearest readable name by (user, name), as computing it goes through every name. An entry outlives changes
+     * of the jobs: the name it suggests only has to still be there and readable.
+     */
+    private static final Cache<List<String>, Nearest> NEAREST = CacheBuilder.newBuilder()
+            .maximumSize(1000)
+            .expireAfterWrite(10, TimeUnit.MINUTES)
+            .build();
+
+    private JobNameIndex() {}
+
+    /**
+     * @return the full names of all jobs, sorted
+     */
+    static NavigableSet<String> getNames() {
+        if (!built) {
+            build();
+        }
+        return names;
+    }
+
+    /**
+     * @return the full names starting with the prefix, sorted
+     */
+    static NavigableSet<String> getNamesStartingWith(String prefix) {
+        if (prefix.isEmpty()) {
+            return getNames();
+        }
+        // no name character sorts after U+FFFF
+        return getNames().subSet(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    /**
+     * {@link Items#findNearest(Class, String, hudson.model.ItemGroup)} from the root, without loading every job.
+     *
+     * @return the full name of the job the current user can read whose full name is the nearest to the name,
+     *     {@code null} if there is none
+     */
+    @CheckForNull
+    static String findNearest(String name) {
+        List<String> key = Arrays.asList(Jenkins.getAuthentication2().getName(), name);
+        // read the generation first so a concurrent change can't get cached as up to date
+        long current = generation.get();
+        NavigableSet<String> all = getNames();
+        Nearest cached = NEAREST.getIfPresent(key);
+        if (cached != null) {
+            if (cached.name != null) {
+                if (all.contains(cached.name) && getReadableJob(cached.name) != null) {
+                    return cached.name;
+                }
+            } else if (cached.generation == current) {
+                return null;
+            }
+        }
+        String nearest = computeNearest(name, all);
+        NEAREST.put(key, new Nearest(current, nearest));
+        return nearest;
+    }
+
+    @CheckForNull
+    private static String computeNearest(String name, Collection<String> all) {
+        String nearest = null;
+        int distance = Integer.MAX_VALUE;
+        for (String candidate : all) {
+            // the edit distance is at least the difference of the lengths
+            if (Math.abs(candidate.length() - name.length()) >= distance) {
+                continue;
+            }
+            int d = EditDistance.editDistance(name, candidate);
+            // only the jobs nearer than the nearest readable one so far are looked up
+            if (d < distance && getReadableJob(candidate) != null) {
+                nearest = candidate;
+                distance = d;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Looks a job of the index up for the current user. Unlike {@link Jenkins#getItemByFullName(String, Class)}, a
+     * job the user may only discover is skipped rather than failing with an
+     * {@link org.springframework.security.access.AccessDeniedException}.
+     *
+     * @return the job, {@code null} if there is none or the current user cannot read it
+     */
+    @CheckForNull
+    static Job<?, ?> getReadableJob(String fullName) {
+        Job<?, ?> job;
+        try (ACLContext ctx = ACL.as2(ACL.SYSTEM2)) {
+            job = Jenkins.get().getItemByFullName(fullName, Job.class);
+        }
+        return job != null && BuildTriggerConfig.isReadable(job) ? job : null;
+    }
+
+    private static synchronized void build() {
+        if (built) {
+            return;
+        }
+        names.clear();
+        try (ACLContext ctx = ACL.as2(ACL.SYSTEM2)) {
+            for (Job<?, ?> job : Jenkins.get().getAllItems(Job.class)) {
+                names.add(job.getFullName());
+            }
+        }
+        built = true;
+        generation.incrementAndGet();
+    }
+
+    static synchronized void add(Item item) {
+        if (built && item instanceof Job) {
+            names.add(item.getFullName());
+            generation.incrementAndGet();
+        }
+    }
+
+    static synchronized void remove(String fullName) {
+        if (built) {
+            names.remove(fullName);
+            names.subSet(fullName + '/', true, fullName + '/' + Character.MAX_VALUE, false).clear();
+            generation.incrementAndGet();
+        }
+    }
+
+    static synchronized void invalidate() {
+        built = false;
+        names.clear();
+        NEAREST.invalidateAll();
+        generation.incrementAndGet();
+    }
+
+    private static final class Nearest {
+        private final long generation;
+
+        @CheckForNull
+        private final String name;
+
+        Nearest(long generation, @CheckForNull String name) {
+            this.generation = generation;
+            this.name = name;
+        }
+    }
+
+    @Extension
+    public static final class ItemListenerImpl extends ItemListener {
+        @Override
+        public void onCreated(Item item) {
+            add(item);
+        }
+
+        @Override
+        public void onCopied(Item src, Item item) {
+            add(item);
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            // the items within a moved folder get their own notification
+            if (item instanceof Job) {
+                remove(oldFullName);
+                add(item);
+            }
+        }
+
+        @Override
+        public void onDeleted(Item item) {
+            remove(item.getFullName());
+        }
+
+        @Override
+        public void onLoaded() {
+            invalidate();
+        }
+    }
+}
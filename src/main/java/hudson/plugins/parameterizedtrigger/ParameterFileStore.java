@@ -0,0 +1,167 @@
+package hudson.plugins.parameterizedtrigger;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.Extension;
+import hudson.FilePath;
+import hudson.Util;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.TaskListener;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import org.apache.commons.io.IOUtils;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Keeps a single copy of identical parameter files on the controller.
+ *
+ * <p>Each file is stored once under its SHA-256 digest, and the files in the build directories are hard links to it:
+ * the copy of the triggering build, and the copy each triggered build makes of its file parameter. The file system
+ * counts the links, so a stored file is only referenced by the store itself once every build linking to it has been
+ * deleted, and {@link Sweeper} removes it then. Where hard links are not supported, e.g. when the builds are not on
+ * the same file system as {@code JENKINS_HOME}, the files are left as they are.
+ *
+ * <p>As a shared file is written through by whatever writes to one of its links, a file is always deleted before it
+ * is written again.
+ */
+@Restricted(NoExternalUse.class)
+public final class ParameterFileStore {
+
+    private static final Logger LOGGER = Logger.getLogger(ParameterFileStore.class.getName());
+
+    /**
+     * Whether to share identical parameter files between builds, off unless enabled by the system property.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "non-final for script console")
+    static boolean ENABLED = SystemProperties.getBoolean(ParameterFileStore.class.getName() + ".enabled", false);
+
+    private ParameterFileStore() {}
+
+    static File getRoot() {
+        return new File(Jenkins.get().getRootDir(), "parameterized-trigger/parameter-files");
+    }
+
+    /**
+     * Copies the file to the controller and replaces the copy by a link to the stored file with the same content,
+     * storing it first if there is none. The digest is computed while copying, so the file is only read once.
+     */
+    static void copy(FilePath source, File target) throws IOException, InterruptedException {
+        Path path = target.toPath();
+        Files.createDirectories(path.getParent());
+        // the file of an earlier trigger of the build may be shared, writing it would change the other links
+        Files.deleteIfExists(path);
+        MessageDigest digest = newDigest();
+        try (InputStream in = source.read();
+                OutputStream out = new DigestOutputStream(Files.newOutputStream(path), digest)) {
+            IOUtils.copy(in, out);
+        }
+        share(path, Util.toHexString(digest.digest()));
+    }
+
+    /**
+     * Replaces the copy by a link to the shared file it was copied from.
+     */
+    static void relink(File copy, File shared) {
+        Path path = copy.toPath();
+        try {
+            // the copy was just made from the shared file, which is never written in place
+            if (Files.isRegularFile(path)
+                    && Files.size(path) == Files.size(shared.toPath())
+                    && !Files.isSameFile(path, shared.toPath())) {
+                replaceByLink(path, shared.toPath());
+            }
+        } catch (IOException | UnsupportedOperationException e) {
+            LOGGER.log(Level.FINE, "Could not link " + copy + " to " + shared, e);
+        }
+    }
+
+    private static void share(Path path, String digest) {
+        try {
+            Path stored = getRoot().toPath().resolve(digest.substring(0, 2)).resolve(digest);
+            Files.createDirectories(stored.getParent());
+            try {
+                Files.createLink(stored, path);
+                return;
+            } catch (FileAlreadyExistsException e) {
+                // the same content has been stored before
+            }
+            replaceByLink(path, stored);
+        } catch (IOException | UnsupportedOperationException e) {
+            // no hard links here, or the stored file was swept in the meantime
+            LOGGER.log(Level.FINE, "Could not share " + path, e);
+        }
+    }
+
+    private static void replaceByLink(Path path, Path target) throws IOException {
+        // link next to the file first, so that the target is referenced before the copy goes away
+        Path link = path.resolveSibling(path.getFileName() + ".link");
+        Files.deleteIfExists(link);
+        Files.createLink(link, target);
+        Files.move(link, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static MessageDigest newDigest() throws IOException {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Removes the stored files no build links to anymore.
+     */
+    static void sweep() throws IOException {
+        Path root = getRoot().toPath();
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        try (DirectoryStream<Path> shards = Files.newDirectoryStream(root)) {
+            for (Path shard : shards) {
+                try (DirectoryStream<Path> stored = Files.newDirectoryStream(shard)) {
+                    for (Path file : stored) {
+                        if (((Number) Files.getAttribute(file, "unix:nlink")).intValue() <= 1) {
+                            Files.deleteIfExists(file);
+                        }
+                    }
+                }
+            }
+        } catch (UnsupportedOperationException | IllegalArgumentException e) {
+            // no link count on this file system, which then does not support links either
+            LOGGER.log(Level.FINE, "Could not sweep " + root, e);
+        }
+    }
+
+    @Extension
+    public static final class Sweeper extends AsyncPeriodicWork {
+
+        public Sweeper() {
+            super("Parameterized trigger parameter files sweeper");
+        }
+
+        @Override
+        public long getRecurrencePeriod() {
+            return TimeUnit.DAYS.toMillis(1);
+        }
+
+        @Override
+        protected void execute(TaskListener listener) throws IOException {
+            sweep();
+        }
+    }
+}
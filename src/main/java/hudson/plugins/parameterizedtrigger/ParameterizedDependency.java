@@ -58,7 +58,8 @@ public class ParameterizedDependency extends Dependency {
             return false;
         }
         try {
-            List<Action> actionList = config.getBaseActions(build, listener);
+            // shared by the downstream projects of the config
+            List<Action> actionList = BaseActionsCache.getBaseActions(config, build, listener);
             if (!actionList.isEmpty()) {
                 actions.addAll(config.getBuildActions(actionList, getDownstreamProject()));
                 return true;
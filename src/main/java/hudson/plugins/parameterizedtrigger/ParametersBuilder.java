@@ -0,0 +1,77 @@
+package hudson.plugins.parameterizedtrigger;
+
+import hudson.model.Job;
+import hudson.model.ParameterValue;
+import hudson.model.ParametersAction;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Collects the parameters of a triggered build into one ordered map, so that merging the parameter sources and
+ * applying the project specific transforms produces a single {@link ParametersAction}.
+ *
+ * <p>Adding a parameter that is already present replaces its value but keeps its position, as
+ * {@link ParameterizedTriggerUtils#mergeParameters(ParametersAction, ParametersAction)} does.
+ */
+final class ParametersBuilder {
+
+    /**
+     * A transform applied to the parameters in place of a {@link ITransformProjectParametersAction}.
+     */
+    interface Transform {
+        void transform(ParametersBuilder parameters, Job<?, ?> project);
+    }
+
+    private Map<String, ParameterValue> parameters = new LinkedHashMap<>();
+
+    ParametersBuilder() {}
+
+    ParametersBuilder(ParametersAction action) {
+        add(action);
+    }
+
+    ParametersBuilder add(ParametersAction action) {
+        return addAll(action.getParameters());
+    }
+
+    ParametersBuilder addAll(Collection<? extends ParameterValue> values) {
+        for (ParameterValue value : values) {
+            parameters.put(value.getName(), value);
+        }
+        return this;
+    }
+
+    /**
+     * Adds parameters in front of the current ones, which keep their values.
+     */
+    ParametersBuilder addAllFirst(Collection<? extends ParameterValue> values) {
+        if (!values.isEmpty()) {
+            Map<String, ParameterValue> merged = new LinkedHashMap<>();
+            for (ParameterValue value : values) {
+                merged.put(value.getName(), value);
+            }
+            merged.putAll(parameters);
+            parameters = merged;
+        }
+        return this;
+    }
+
+    /**
+     * Replaces every value by the one returned by the operator.
+     */
+    ParametersBuilder replaceAll(UnaryOperator<ParameterValue> operator) {
+        parameters.replaceAll((name, value) -> operator.apply(value));
+        return this;
+    }
+
+    boolean isEmpty() {
+        return parameters.isEmpty();
+    }
+
+    ParametersAction build() {
+        return new ParametersAction(new ArrayList<>(parameters.values()));
+    }
+}
@@ -1,6 +1,7 @@
 package hudson.plugins.parameterizedtrigger;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.BulkChange;
 import hudson.Extension;
 import hudson.model.Item;
 import hudson.model.ItemGroup;
@@ -38,7 +39,7 @@ public class Plugin extends hudson.Plugin {
             String full = context.getFullName().isEmpty() ? "" : context.getFullName() + "/";
             String fullOldName = full + oldName;
             String fullNewName = full + newName;
-            for (Project<?, ?> p : Jenkins.get().getAllItems(Project.class)) {
+            for (Project<?, ?> p : TriggerReferenceIndex.getReferrers(fullOldName)) {
                 boolean changed = false;
                 // iterate over post build triggers
                 for (BuildTrigger bt : p.getPublishersList().getAll(BuildTrigger.class)) {
@@ -58,26 +59,18 @@ public class Plugin extends hudson.Plugin {
                     changed |= renameInConditionalBuildStep(p, oldName, newName);
                 }
 
-                // if something changed, save the project
+                // if something changed, save the project in the background
                 if (changed) {
-                    try {
-                        p.save();
-                    } catch (IOException e) {
-                        Logger.getLogger(RenameListener.class.getName())
-                                .log(
-                                        Level.WARNING,
-                                        "Failed to persist project setting during rename from " + fullOldName + " to "
-                                                + fullNewName,
-                                        e);
-                    }
+                    TriggerReferenceIndex.invalidate(p);
+                    DeferredProjectSaver.save(p);
                 }
             }
         }
 
         @Override
         public void onDeleted(Item item) {
-            for (Project<?, ?> p : Jenkins.get().getAllItems(Project.class)) {
-                String oldName = item.getFullName();
+            String oldName = item.getFullName();
+            for (Project<?, ?> p : TriggerReferenceIndex.getReferrers(oldName)) {
                 boolean changed = false;
                 // iterate over post build triggers
                 for (BuildTrigger bt : p.getPublishersList().getAll(BuildTrigger.class)) {
@@ -111,9 +104,10 @@ public class Plugin extends hudson.Plugin {
                     changed |= deleteInConditionalBuildStep(p, oldName);
                 }
 
-                // if something changed, save the project
+                // if something changed, save the project in the background
                 if (changed) {
-                    try {
+                    // removing from the lists would save the project right away
+                    try (BulkChange bc = new BulkChange(p)) {
                         for (BuildTrigger bt : p.getPublishersList().getAll(BuildTrigger.class)) {
                             if (bt.getConfigs().isEmpty()) {
                                 p.getPublishersList().remove(bt);
@@ -124,7 +118,9 @@ public class Plugin extends hudson.Plugin {
                                 p.getBuildersList().remove(tb);
                             }
                         }
-                        p.save();
+                        bc.abort();
+                        TriggerReferenceIndex.invalidate(p);
+                        DeferredProjectSaver.save(p);
                     } catch (IOException e) {
                         Logger.getLogger(RenameListener.class.getName())
                                 .log(Level.WARNING, "Failed to persist project setting during remove of " + oldName, e);
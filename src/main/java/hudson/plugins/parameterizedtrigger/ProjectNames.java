@@ -0,0 +1,133 @@
+package hudson.plugins.parameterizedtrigger;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.EnvVars;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringTokenizer;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * The comma separated project list of a {@link BuildTriggerConfig}, split once into trimmed names.
+ *
+ * Names without a {@code $} are static and used as they are, only the dynamic ones get expanded with the
+ * environment of a build. A dynamic name may expand to several comma separated names.
+ */
+@Restricted(NoExternalUse.class)
+final class ProjectNames {
+
+    private final String projects;
+    private final List<String> names;
+    private final List<String> dynamicNames;
+
+    private ProjectNames(String projects, List<String> names, List<String> dynamicNames) {
+        this.projects = projects;
+        this.names = names;
+        this.dynamicNames = dynamicNames;
+    }
+
+    static ProjectNames parse(@CheckForNull String projects) {
+        projects = projects == null ? "" : projects;
+        List<String> names = split(projects);
+        List<String> dynamicNames = new ArrayList<>();
+        for (String name : names) {
+            if (isDynamic(name)) {
+                dynamicNames.add(name);
+            }
+        }
+        return new ProjectNames(
+                projects, Collections.unmodifiableList(names), Collections.unmodifiableList(dynamicNames));
+    }
+
+    static List<String> split(String list) {
+        List<String> names = new ArrayList<>();
+        StringTokenizer tokens = new StringTokenizer(list, ",");
+        while (tokens.hasMoreTokens()) {
+            names.add(tokens.nextToken().trim());
+        }
+        return names;
+    }
+
+    private static boolean isDynamic(String name) {
+        return name.indexOf('$') >= 0;
+    }
+
+    /**
+     * @return the list as configured
+     */
+    String getProjects() {
+        return projects;
+    }
+
+    /**
+     * @return all names, unexpanded
+     */
+    List<String> getNames() {
+        return names;
+    }
+
+    /**
+     * @return the names that need to be expanded, unexpanded
+     */
+    List<String> getDynamicNames() {
+        return dynamicNames;
+    }
+
+    boolean isDynamic() {
+        return !dynamicNames.isEmpty();
+    }
+
+    /**
+     * @param env Environment variables from which to expand the dynamic names; Might be {@code null}.
+     * @return all names, the dynamic ones expanded
+     */
+    @NonNull
+    List<String> expand(@CheckForNull EnvVars env) {
+        if (env == null || !isDynamic()) {
+            return names;
+        }
+        List<String> expanded = new ArrayList<>(names.size());
+        for (String name : names) {
+            if (isDynamic(name)) {
+                expanded.addAll(split(env.expand(name)));
+            } else {
+                expanded.add(name);
+            }
+        }
+        return expanded;
+    }
+
+    /**
+     * @param env Environment variables from which to expand the dynamic names; Might be {@code null}.
+     * @return the names the dynamic names expanded to
+     */
+    @NonNull
+    List<String> expandDynamic(@CheckForNull EnvVars env) {
+        if (env == null || !isDynamic()) {
+            return dynamicNames;
+        }
+        List<String> expanded = new ArrayList<>(dynamicNames.size());
+        for (String name : dynamicNames) {
+            expanded.addAll(split(env.expand(name)));
+        }
+        return expanded;
+    }
+
+    /**
+     * @param env Environment variables from which to expand the dynamic names.
+     * @return the names each dynamic name expanded to, by dynamic name
+     */
+    @NonNull
+    Map<String, List<String>> expandEach(@NonNull EnvVars env) {
+        Map<String, List<String>> expanded = new LinkedHashMap<>();
+        for (String name : dynamicNames) {
+            expanded.put(name, split(env.expand(name)));
+        }
+        return expanded;
+    }
+}
@@ -1,5 +1,7 @@
 package hudson.plugins.parameterizedtrigger;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import hudson.model.AbstractBuild;
 import hudson.model.Executor;
 import hudson.model.Job;
@@ -12,16 +14,27 @@ import hudson.model.SimpleParameterDefinition;
 import hudson.model.StringParameterDefinition;
 import hudson.model.StringParameterValue;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
 
 /**
  * Convert Generic ParameterValues to the type indicated by the Project's ParameterDefinitions
  */
-public class ProjectSpecificParameterValuesActionTransform implements ITransformProjectParametersAction {
+public class ProjectSpecificParameterValuesActionTransform
+        implements ITransformProjectParametersAction, ParametersBuilder.Transform {
+
+    /**
+     * The definitions of a job by name, by its property. Configuring the job replaces the property.
+     */
+    private static final Cache<ParametersDefinitionProperty, Map<String, ParameterDefinition>> DEFINITIONS =
+            CacheBuilder.newBuilder().weakKeys().build();
+
     public ParametersAction transformParametersAction(ParametersAction a, Job<?, ?> project) {
         Map<String, ParameterDefinition> parameterDefinitions = getParameterDefinitionsMap(project);
 
@@ -34,18 +47,29 @@ public class ProjectSpecificParameterValuesActionTransform implements ITransform
         return new ParametersAction(params);
     }
 
-    private static Map<String, ParameterDefinition> getParameterDefinitionsMap(Job<?, ?> project) {
-        HashMap<String, ParameterDefinition> m = new HashMap<>();
+    @Override
+    @Restricted(NoExternalUse.class)
+    public void transform(ParametersBuilder parameters, Job<?, ?> project) {
+        Map<String, ParameterDefinition> parameterDefinitions = getParameterDefinitionsMap(project);
+        if (!parameterDefinitions.isEmpty()) {
+            parameters.replaceAll(param -> convertToDefinedType(parameterDefinitions, param));
+        }
+    }
 
+    private static Map<String, ParameterDefinition> getParameterDefinitionsMap(Job<?, ?> project) {
         ParametersDefinitionProperty property = project.getProperty(ParametersDefinitionProperty.class);
 
-        if (property != null) {
-            for (ParameterDefinition pd : property.getParameterDefinitions()) {
-                m.put(pd.getName(), pd);
-            }
+        if (property == null) {
+            return Collections.emptyMap();
         }
 
-        return m;
+        return DEFINITIONS.asMap().computeIfAbsent(property, p -> {
+            HashMap<String, ParameterDefinition> m = new HashMap<>();
+            for (ParameterDefinition pd : p.getParameterDefinitions()) {
+                m.put(pd.getName(), pd);
+            }
+            return Collections.unmodifiableMap(m);
+        });
     }
 
     private static boolean canConvert(ParameterDefinition def, ParameterValue v) {
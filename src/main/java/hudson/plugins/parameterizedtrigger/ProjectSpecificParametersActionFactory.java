@@ -18,31 +18,29 @@ public class ProjectSpecificParametersActionFactory {
 
     public final List<Action> getProjectSpecificBuildActions(List<Action> baseActions, Job<?, ?> project) {
         List<Action> actions = new ArrayList<>();
-        ParametersAction pa = getParametersAction(baseActions);
+        ParametersAction pa = null;
 
         // Copy everything except the ParametersAction
         for (Action a : baseActions) {
             if (!(a instanceof ParametersAction)) {
                 actions.add(a);
+            } else if (pa == null) {
+                pa = (ParametersAction) a;
             }
         }
 
+        // Transform the parameters in place where possible, so that only one ParametersAction gets created
+        ParametersBuilder parameters = pa != null ? new ParametersBuilder(pa) : new ParametersBuilder();
         for (ITransformProjectParametersAction transform : transforms) {
-            pa = transform.transformParametersAction(pa, project);
+            if (transform instanceof ParametersBuilder.Transform) {
+                ((ParametersBuilder.Transform) transform).transform(parameters, project);
+            } else {
+                parameters = new ParametersBuilder(transform.transformParametersAction(parameters.build(), project));
+            }
         }
 
-        actions.add(pa);
+        actions.add(parameters.build());
 
         return actions;
     }
-
-    private static ParametersAction getParametersAction(List<Action> actions) {
-        for (Action a : actions) {
-            if (a instanceof ParametersAction) {
-                return (ParametersAction) a;
-            }
-        }
-
-        return new ParametersAction();
-    }
 }
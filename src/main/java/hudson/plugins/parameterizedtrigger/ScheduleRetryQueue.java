@@ -0,0 +1,261 @@
+package hudson.plugins.parameterizedtrigger;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.model.Item;
+import hudson.model.Queue;
+import hudson.model.TaskListener;
+import hudson.model.listeners.ItemListener;
+import hudson.model.queue.QueueListener;
+import hudson.model.queue.QueueTaskFuture;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Retries builds the {@link Queue} refused to schedule for a blocking {@link BlockableBuildTriggerConfig}.
+ *
+ * <p>A single worker thread serves every pending request. A request is retried after an exponentially growing delay,
+ * or earlier when an item of its job leaves the queue or its job is updated, though never twice within
+ * {@link #INITIAL_DELAY}. The total wait can be capped with the {@code maxWait} system property, in which case the
+ * build is skipped once the cap is reached.
+ */
+@Restricted(NoExternalUse.class)
+public final class ScheduleRetryQueue {
+
+    private static final Logger LOGGER = Logger.getLogger(ScheduleRetryQueue.class.getName());
+
+    static final long INITIAL_DELAY =
+            SystemProperties.getLong(ScheduleRetryQueue.class.getName() + ".initialDelay", 1000L);
+    static final long MAX_DELAY = SystemProperties.getLong(ScheduleRetryQueue.class.getName() + ".maxDelay", 60000L);
+    /** Total time to wait for the queue to accept a build, in milliseconds. 0 waits forever. */
+    static final long MAX_WAIT = SystemProperties.getLong(ScheduleRetryQueue.class.getName() + ".maxWait", 0L);
+
+    private static final ScheduleRetryQueue INSTANCE = new ScheduleRetryQueue();
+
+    /**
+     * One attempt at scheduling a build.
+     */
+    interface Attempt {
+        /**
+         * @return the scheduled build, or {@code null} if the queue refused it
+         */
+        @CheckForNull
+        QueueTaskFuture schedule() throws IOException, InterruptedException;
+
+        /**
+         * @return {@code true} if a refused build is worth retrying
+         */
+        boolean canRetry();
+    }
+
+    private final List<Request> pending = new ArrayList<>();
+    private Thread worker;
+
+    static ScheduleRetryQueue get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Retries the attempt until the queue accepts the build, the attempt cannot be retried, or the wait is capped.
+     *
+     * @return the scheduled build, or {@code null} if it was given up
+     */
+    @CheckForNull
+    QueueTaskFuture schedule(@NonNull Attempt attempt, @NonNull String name, @NonNull TaskListener listener)
+            throws IOException, InterruptedException {
+        Request request = new Request(attempt, name, listener, Jenkins.getAuthentication2());
+        synchronized (this) {
+            pending.add(request);
+            if (worker == null) {
+                worker = new NamingThreadFactory(new DaemonThreadFactory(), "Parameterized trigger schedule retry")
+                        .newThread(this::run);
+                worker.start();
+            }
+            notifyAll();
+        }
+        try {
+            return request.result.get();
+        } catch (InterruptedException x) {
+            synchronized (this) {
+                pending.remove(request);
+            }
+            if (!request.result.complete(null)) {
+                // the worker scheduled the build in the meantime
+                QueueTaskFuture f = request.result.getNow(null);
+                if (f != null) {
+                    f.cancel(true);
+                }
+            }
+            throw x;
+        } catch (ExecutionException x) {
+            Throwable cause = x.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof InterruptedException) {
+                throw (InterruptedException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Makes the pending requests for the job due, as the queue may accept them now. Requests attempted less than
+     * {@link #INITIAL_DELAY} ago become due once that delay has passed, so that a burst of events leads to one attempt.
+     *
+     * @param fullName the full name of the job
+     */
+    synchronized void wake(@NonNull String fullName) {
+        boolean woken = false;
+        for (Request r : pending) {
+            if (r.name.equals(fullName) && !r.woken) {
+                r.woken = true;
+                woken = true;
+            }
+        }
+        if (woken) {
+            notifyAll();
+        }
+    }
+
+    synchronized int size() {
+        return pending.size();
+    }
+
+    private void run() {
+        while (true) {
+            List<Request> due = new ArrayList<>();
+            synchronized (this) {
+                try {
+                    while (due.isEmpty()) {
+                        pending.removeIf(r -> r.result.isDone());
+                        long now = System.currentTimeMillis();
+                        long next = Long.MAX_VALUE;
+                        for (Request r : pending) {
+                            long at = r.woken ? Math.min(r.nextAttempt, r.lastAttempt + INITIAL_DELAY) : r.nextAttempt;
+                            if (at <= now) {
+                                r.woken = false;
+                                due.add(r);
+                            } else {
+                                next = Math.min(next, at);
+                            }
+                        }
+                        if (!due.isEmpty()) {
+                            break;
+                        }
+                        if (pending.isEmpty()) {
+                            wait();
+                        } else {
+                            wait(next - now);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    LOGGER.log(Level.FINE, "Schedule retry worker interrupted", e);
+                    // nothing would attempt the pending requests anymore, a later request starts a new worker
+                    for (Request r : pending) {
+                        r.result.completeExceptionally(e);
+                    }
+                    pending.clear();
+                    worker = null;
+                    return;
+                }
+            }
+            for (Request r : due) {
+                r.attempt();
+            }
+        }
+    }
+
+    private static final class Request {
+        private final Attempt attempt;
+        private final String name;
+        private final TaskListener listener;
+        private final Authentication auth;
+        private final long deadline;
+        private final CompletableFuture<QueueTaskFuture> result = new CompletableFuture<>();
+        private long delay = INITIAL_DELAY;
+        private long lastAttempt;
+        private long nextAttempt;
+        /**
+         * Guarded by the {@link ScheduleRetryQueue}.
+         */
+        private boolean woken;
+
+        Request(Attempt attempt, String name, TaskListener listener, Authentication auth) {
+            this.attempt = attempt;
+            this.name = name;
+            this.listener = listener;
+            this.auth = auth;
+            long now = System.currentTimeMillis();
+            this.deadline = MAX_WAIT > 0 ? now + MAX_WAIT : Long.MAX_VALUE;
+            // the caller has just been refused
+            this.lastAttempt = now;
+            this.nextAttempt = now + delay;
+        }
+
+        /**
+         * Called on the worker thread only.
+         */
+        void attempt() {
+            if (result.isDone()) {
+                return;
+            }
+            QueueTaskFuture f;
+            try (ACLContext ctx = ACL.as2(auth)) {
+                f = attempt.schedule();
+                if (f == null && attempt.canRetry()) {
+                    long now = System.currentTimeMillis();
+                    lastAttempt = now;
+                    if (now < deadline) {
+                        nextAttempt = Math.min(now + delay, deadline);
+                        delay = Math.min(delay * 2, MAX_DELAY);
+                        return;
+                    }
+                    listener.error("Gave up waiting for the queue to accept a build of " + name);
+                }
+            } catch (IOException | InterruptedException | RuntimeException e) {
+                result.completeExceptionally(e);
+                return;
+            }
+            if (!result.complete(f) && f != null) {
+                // the requesting build was interrupted in the meantime
+                f.cancel(true);
+            }
+        }
+    }
+
+    @Extension
+    public static final class QueueListenerImpl extends QueueListener {
+        @Override
+        public void onLeft(Queue.LeftItem li) {
+            Queue.Task owner = li.task.getOwnerTask();
+            if (owner instanceof Item) {
+                get().wake(((Item) owner).getFullName());
+            }
+        }
+    }
+
+    @Extension
+    public static final class ItemListenerImpl extends ItemListener {
+        @Override
+        public void onUpdated(Item item) {
+            get().wake(item.getFullName());
+        }
+    }
+}
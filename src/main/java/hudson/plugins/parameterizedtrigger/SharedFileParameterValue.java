@@ -0,0 +1,48 @@
+package hudson.plugins.parameterizedtrigger;
+
+import hudson.Launcher;
+import hudson.model.AbstractBuild;
+import hudson.model.BuildListener;
+import hudson.model.FileParameterValue;
+import hudson.tasks.BuildWrapper;
+import java.io.File;
+import java.io.IOException;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * A {@link FileParameterValue} of a file the {@link ParameterFileStore} shares. The copy the triggered build keeps of
+ * the file is replaced by a link to it once it has been made.
+ */
+@Restricted(NoExternalUse.class)
+public final class SharedFileParameterValue extends FileParameterValue {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The file of the triggering build, only known until the triggered build leaves the queue.
+     */
+    private final transient File shared;
+
+    SharedFileParameterValue(String name, File shared, String originalFileName) {
+        super(name, shared, originalFileName);
+        this.shared = shared;
+    }
+
+    @Override
+    public BuildWrapper createBuildWrapper(AbstractBuild<?, ?> build) {
+        BuildWrapper copy = super.createBuildWrapper(build);
+        if (copy == null || shared == null || getLocation() == null) {
+            return copy;
+        }
+        return new BuildWrapper() {
+            @Override
+            public Environment setUp(AbstractBuild build, Launcher launcher, BuildListener listener)
+                    throws IOException, InterruptedException {
+                Environment environment = copy.setUp(build, launcher, listener);
+                // where FileParameterValue keeps its copy in the build directory
+                ParameterFileStore.relink(new File(build.getRootDir(), "fileParameters/" + getLocation()), shared);
+                return environment;
+            }
+        };
+    }
+}
@@ -0,0 +1,192 @@
+package hudson.plugins.parameterizedtrigger;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.model.AbstractProject;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.RunListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.util.ClassLoaderSanityThreadFactory;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Keeps the {@link SubProjectData} shown on the job page, so that rendering the page does not back track builds.
+ *
+ * <p>The data is computed in the background. Until it is available for the first time the page shows none, and once
+ * a build of the project completes or a job changes the page keeps showing the previous data until it is recomputed.
+ * The data is computed as {@link ACL#SYSTEM2}, the view only shows the projects the user can read, and only the
+ * headings of the sets holding at least one of them.
+ *
+ * <p>The data of all the configs of a project is computed by one task, which is only scheduled once for any number of
+ * page views until it starts, and the tasks share a few threads.
+ */
+@Restricted(NoExternalUse.class)
+public final class SubProjectDataCache {
+
+    private static final Logger LOGGER = Logger.getLogger(SubProjectDataCache.class.getName());
+
+    /**
+     * Number of projects whose data is computed at the same time.
+     */
+    private static final int THREADS = 2;
+
+    private static final ThreadPoolExecutor COMPUTERS = new ThreadPoolExecutor(
+            THREADS,
+            THREADS,
+            60,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            new ClassLoaderSanityThreadFactory(
+                    new NamingThreadFactory(new DaemonThreadFactory(), "Parameterized trigger subprojects")));
+
+    static {
+        COMPUTERS.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * The projects whose data is scheduled to be computed, the task not having started yet.
+     */
+    private static final Map<Job<?, ?>, FutureTask<?>> SCHEDULED = new ConcurrentHashMap<>();
+
+    /**
+     * By config, which is replaced when its project gets configured.
+     */
+    private static final Cache<BuildTriggerConfig, Entry> ENTRIES =
+            CacheBuilder.newBuilder().weakKeys().build();
+
+    private SubProjectDataCache() {}
+
+    /**
+     * @return the data last computed for the config, {@code null} if it has not been computed yet
+     */
+    @CheckForNull
+    static SubProjectData get(@NonNull AbstractProject<?, ?> project, @NonNull BuildTriggerConfig config) {
+        Entry entry = ENTRIES.asMap().computeIfAbsent(config, c -> new Entry(project));
+        if (entry.stale) {
+            FutureTask<?> task = new FutureTask<>(() -> computeStale(project), null);
+            FutureTask<?> scheduled = SCHEDULED.putIfAbsent(project, task);
+            if (scheduled == null) {
+                COMPUTERS.execute(task);
+                scheduled = task;
+            }
+            entry.computation = scheduled;
+        }
+        return entry.data;
+    }
+
+    /**
+     * Like {@link #get(AbstractProject, BuildTriggerConfig)}, but waits for the data to be computed if needed.
+     */
+    @CheckForNull
+    static SubProjectData await(@NonNull AbstractProject<?, ?> project, @NonNull BuildTriggerConfig config)
+            throws InterruptedException, ExecutionException {
+        get(project, config);
+        Entry entry = ENTRIES.getIfPresent(config);
+        Future<?> computation = entry != null ? entry.computation : null;
+        if (computation != null) {
+            computation.get();
+        }
+        return entry != null ? entry.data : null;
+    }
+
+    private static void computeStale(AbstractProject<?, ?> project) {
+        // from now on a change schedules the project again
+        SCHEDULED.remove(project);
+        for (Map.Entry<BuildTriggerConfig, Entry> e : ENTRIES.asMap().entrySet()) {
+            Entry entry = e.getValue();
+            if (entry.project == project && entry.stale) {
+                entry.stale = false;
+                entry.compute(e.getKey());
+            }
+        }
+    }
+
+    static void invalidate(Job<?, ?> job) {
+        for (Entry entry : ENTRIES.asMap().values()) {
+            if (entry.project == job) {
+                entry.stale = true;
+            }
+        }
+    }
+
+    static void invalidateAll() {
+        for (Entry entry : ENTRIES.asMap().values()) {
+            entry.stale = true;
+        }
+    }
+
+    private static final class Entry {
+        final AbstractProject<?, ?> project;
+        volatile boolean stale = true;
+        volatile SubProjectData data;
+        volatile Future<?> computation;
+
+        Entry(AbstractProject<?, ?> project) {
+            this.project = project;
+        }
+
+        void compute(BuildTriggerConfig config) {
+            try (ACLContext ctx = ACL.as2(ACL.SYSTEM2)) {
+                data = config.getProjectInfo(project);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Failed to compute the subprojects of " + project, e);
+            }
+        }
+    }
+
+    @Extension
+    public static final class RunListenerImpl extends RunListener<Run<?, ?>> {
+        @Override
+        public void onCompleted(Run<?, ?> run, @NonNull TaskListener listener) {
+            invalidate(run.getParent());
+        }
+
+        @Override
+        public void onDeleted(Run<?, ?> run) {
+            invalidate(run.getParent());
+        }
+    }
+
+    @Extension
+    public static final class ItemListenerImpl extends ItemListener {
+        // jobs named by a config may have appeared or disappeared
+
+        @Override
+        public void onCreated(Item item) {
+            invalidateAll();
+        }
+
+        @Override
+        public void onDeleted(Item item) {
+            ENTRIES.asMap().values().removeIf(entry -> entry.project == item);
+            SCHEDULED.remove(item);
+            invalidateAll();
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            invalidateAll();
+        }
+    }
+}
@@ -1,9 +1,15 @@
 package hudson.plugins.parameterizedtrigger;
 
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import hudson.model.AbstractProject;
 import hudson.model.Action;
+import hudson.model.Job;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
 
 /**
  * Action added Projects to track what projects are
@@ -54,6 +60,33 @@ public class SubProjectsAction implements Action {
         return project;
     }
 
+    /**
+     * Gets the projects to show for a config, without waiting for them to be computed.
+     *
+     * @return the last computed projects of the config, {@code null} if they are not available yet
+     */
+    @CheckForNull
+    public SubProjectData getProjectInfo(BlockableBuildTriggerConfig config) {
+        return SubProjectDataCache.get(project, config);
+    }
+
+    /**
+     * The data of a config is computed as {@link hudson.security.ACL#SYSTEM2} and shared by all users, so the view
+     * only shows the projects the current user could look up by name.
+     *
+     * @return the projects of the set the current user can read, along with the folders containing them
+     */
+    @Restricted(NoExternalUse.class)
+    public List<Job<?, ?>> getReadableProjects(Collection<? extends Job<?, ?>> projects) {
+        List<Job<?, ?>> readable = new ArrayList<>();
+        for (Job<?, ?> project : projects) {
+            if (BuildTriggerConfig.isReadable(project)) {
+                readable.add(project);
+            }
+        }
+        return readable;
+    }
+
     private boolean isFirst() {
         return project.getAction(SubProjectsAction.class) == this;
     }
@@ -28,24 +28,19 @@ package hudson.plugins.parameterizedtrigger;
 import com.google.common.collect.ListMultimap;
 import hudson.*;
 import hudson.console.HyperlinkNote;
-import hudson.console.ModelHyperlinkNote;
 import hudson.model.AbstractBuild;
 import hudson.model.AbstractProject;
 import hudson.model.Action;
 import hudson.model.BuildListener;
 import hudson.model.DependencyGraph;
 import hudson.model.Job;
-import hudson.model.Result;
-import hudson.model.Run;
 import hudson.model.TaskListener;
-import hudson.model.User;
 import hudson.model.queue.QueueTaskFuture;
 import hudson.tasks.BuildStepDescriptor;
 import hudson.tasks.BuildStepMonitor;
 import hudson.tasks.Builder;
 import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.logging.Logger;
 import jenkins.model.DependencyDeclarer;
@@ -92,24 +87,21 @@ public class TriggerBuilder extends Builder implements DependencyDeclarer {
         try {
             for (BlockableBuildTriggerConfig config : configs) {
                 ListMultimap<Job, QueueTaskFuture<AbstractBuild>> futures = config.perform3(build, launcher, listener);
+                // Get the actual defined projects
+                List<String> projectNames = config.getProjectNames().expand(env);
+
                 // Only contains resolved projects
                 List<Job> projectList =
-                        config.getJobs(build.getRootBuild().getProject().getParent(), env);
-
-                // Get the actual defined projects
-                StringTokenizer tokenizer = new StringTokenizer(config.getProjects(env), ",");
+                        config.getJobsNamed(build.getRootBuild().getProject().getParent(), projectNames);
 
-                if (tokenizer.countTokens() == 0) {
+                if (projectNames.isEmpty()) {
                     throw new AbortException("Build aborted. No projects to trigger. Check your configuration!");
-                } else if (tokenizer.countTokens() != projectList.size()) {
+                } else if (projectNames.size() != projectList.size()) {
 
-                    int nbrOfResolved = tokenizer.countTokens() - projectList.size();
+                    int nbrOfResolved = projectNames.size() - projectList.size();
 
                     // Identify the unresolved project(s)
-                    Set<String> unsolvedProjectNames = new TreeSet<>();
-                    while (tokenizer.hasMoreTokens()) {
-                        unsolvedProjectNames.add(tokenizer.nextToken().trim());
-                    }
+                    Set<String> unsolvedProjectNames = new TreeSet<>(projectNames);
                     for (Job project : projectList) {
                         unsolvedProjectNames.remove(project.getFullName());
                     }
@@ -135,74 +127,8 @@ public class TriggerBuilder extends Builder implements DependencyDeclarer {
                         continue;
                     }
                     // handle blocking configs
-                    for (Job p : projectList) {
-                        // handle non-buildable projects
-                        if (!config.canBeScheduled(p)) {
-                            User user = User.current();
-                            String userName = user != null ? ModelHyperlinkNote.encodeTo(user) : "unknown";
-                            listener.getLogger()
-                                    .println("Skipping "
-                                            + HyperlinkNote.encodeTo('/' + p.getUrl(), p.getFullDisplayName())
-                                            + ". The project is either disabled,"
-                                            + " or the authenticated user " + userName
-                                            + " has no Item.BUILD permissions,"
-                                            + " or the configuration has not been saved yet.");
-                            continue;
-                        }
-                        for (QueueTaskFuture<AbstractBuild> future : futures.get(p)) {
-                            try {
-                                if (future != null) {
-                                    listener.getLogger()
-                                            .println("Waiting for the completion of "
-                                                    + HyperlinkNote.encodeTo('/' + p.getUrl(), p.getFullDisplayName()));
-                                    Run startedRun;
-                                    try {
-                                        startedRun = future.waitForStart();
-                                    } catch (InterruptedException x) {
-                                        listener.getLogger()
-                                                .println("Build aborting: cancelling queued project "
-                                                        + HyperlinkNote.encodeTo(
-                                                                '/' + p.getUrl(), p.getFullDisplayName()));
-                                        future.cancel(true);
-                                        throw x; // rethrow so that the triggering project get flagged as cancelled
-                                    }
-
-                                    listener.getLogger()
-                                            .println(HyperlinkNote.encodeTo(
-                                                            '/' + startedRun.getUrl(), startedRun.getFullDisplayName())
-                                                    + " started.");
-
-                                    Run completedRun = future.get();
-                                    listener.getLogger()
-                                            .println(HyperlinkNote.encodeTo(
-                                                            '/' + completedRun.getUrl(),
-                                                            completedRun.getFullDisplayName())
-                                                    + " completed. Result was " + completedRun.getResult());
-                                    BuildInfoExporterAction.addBuildInfoExporterAction(
-                                            build,
-                                            completedRun.getParent().getFullName(),
-                                            completedRun.getNumber(),
-                                            completedRun.getResult());
-
-                                    if (buildStepResult
-                                            && config.getBlock().mapBuildStepResult(completedRun.getResult())) {
-                                        Result r = config.getBlock().mapBuildResult(completedRun.getResult());
-                                        if (r != null) { // The blocking job is not a success
-                                            build.setResult(r);
-                                        }
-                                    } else {
-                                        buildStepResult = false;
-                                    }
-                                } else {
-                                    listener.getLogger()
-                                            .println("Skipping " + ModelHyperlinkNote.encodeTo(p)
-                                                    + ". The project was not triggered by some reason.");
-                                }
-                            } catch (CancellationException x) {
-                                throw new AbortException(p.getFullDisplayName() + " aborted.");
-                            }
-                        }
-                    }
+                    buildStepResult = new TriggeredBuildsWaiter(build, config, listener)
+                            .waitFor(projectList, futures, buildStepResult);
                 }
             }
         } catch (ExecutionException e) {
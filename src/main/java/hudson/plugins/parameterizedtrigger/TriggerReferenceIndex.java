@@ -0,0 +1,211 @@
+package hudson.plugins.parameterizedtrigger;
+
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Item;
+import hudson.model.Items;
+import hudson.model.Project;
+import hudson.model.Saveable;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.SaveableListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import jenkins.model.Jenkins;
+import org.jenkinsci.plugins.conditionalbuildstep.ConditionalBuildStepHelper;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Indexes the projects by the full names of the jobs their trigger configs refer to, so that renaming or deleting a
+ * job only has to look at the projects referring to it.
+ *
+ * <p>The index is built the first time it is needed, and a project is indexed again the next time it is needed after
+ * it has been saved or moved.
+ */
+@Restricted(NoExternalUse.class)
+public final class TriggerReferenceIndex {
+
+    /**
+     * By referenced full name, {@code null} until built.
+     */
+    private static NavigableMap<String, Set<Project<?, ?>>> referrers;
+
+    private static final Map<Project<?, ?>, Set<String>> referencedNames = new HashMap<>();
+    private static final Set<Project<?, ?>> stale = new LinkedHashSet<>();
+
+    private TriggerReferenceIndex() {}
+
+    /**
+     * @param fullName the full name of a job
+     * @return the projects referring to the job or, if it is a folder, to a job within it
+     */
+    static synchronized List<Project<?, ?>> getReferrers(String fullName) {
+        update();
+        Set<Project<?, ?>> projects = new LinkedHashSet<>();
+        for (Map.Entry<String, Set<Project<?, ?>>> entry :
+                referrers.subMap(fullName, true, fullName + '0', false).entrySet()) {
+            // '0' follows '/', so the range holds the name, the names within it and some siblings like "name-2"
+            if (entry.getKey().equals(fullName) || entry.getKey().startsWith(fullName + '/')) {
+                projects.addAll(entry.getValue());
+            }
+        }
+        List<Project<?, ?>> readable = new ArrayList<>();
+        for (Project<?, ?> p : projects) {
+            // leaves out the projects that are being deleted, and those the user cannot see like getAllItems does
+            if (Jenkins.get().getItemByFullName(p.getFullName(), Project.class) == p) {
+                readable.add(p);
+            }
+        }
+        return readable;
+    }
+
+    /**
+     * @return the configs of the project, including those of trigger builders wrapped by conditional build steps
+     */
+    static List<BuildTriggerConfig> getConfigs(Project<?, ?> p) {
+        List<BuildTriggerConfig> configs = new ArrayList<>();
+        for (BuildTrigger bt : p.getPublishersList().getAll(BuildTrigger.class)) {
+            configs.addAll(bt.getConfigs());
+        }
+        for (TriggerBuilder tb : p.getBuildersList().getAll(TriggerBuilder.class)) {
+            configs.addAll(tb.getConfigs());
+        }
+        if (Plugin.isConditionalBuildStepInstalled()) {
+            for (TriggerBuilder tb : ConditionalBuildStepHelper.getContainedBuilders(p, TriggerBuilder.class)) {
+                configs.addAll(tb.getConfigs());
+            }
+        }
+        return configs;
+    }
+
+    private static void update() {
+        if (referrers == null) {
+            referrers = new TreeMap<>();
+            referencedNames.clear();
+            stale.clear();
+            try (ACLContext ctx = ACL.as2(ACL.SYSTEM2)) {
+                for (Project<?, ?> p : Jenkins.get().getAllItems(Project.class)) {
+                    index(p);
+                }
+            }
+            return;
+        }
+        for (Project<?, ?> p : stale) {
+            unindex(p);
+            index(p);
+        }
+        stale.clear();
+    }
+
+    private static void index(Project<?, ?> p) {
+        Set<String> names = new LinkedHashSet<>();
+        for (BuildTriggerConfig config : getConfigs(p)) {
+            for (String name : config.getProjectNames().getNames()) {
+                try {
+                    names.add(Items.getCanonicalName(p.getParent(), name));
+                } catch (IllegalArgumentException e) {
+                    // e.g. too many "..", refers to no job
+                }
+            }
+        }
+        if (!names.isEmpty()) {
+            referencedNames.put(p, names);
+            for (String name : names) {
+                referrers.computeIfAbsent(name, n -> new LinkedHashSet<>()).add(p);
+            }
+        }
+    }
+
+    private static void unindex(Project<?, ?> p) {
+        for (String name : referencedNames.getOrDefault(p, Collections.emptySet())) {
+            Set<Project<?, ?>> projects = referrers.get(name);
+            if (projects != null) {
+                projects.remove(p);
+                if (projects.isEmpty()) {
+                    referrers.remove(name);
+                }
+            }
+        }
+        referencedNames.remove(p);
+    }
+
+    static synchronized void invalidate(Item item) {
+        if (referrers != null && item instanceof Project) {
+            stale.add((Project<?, ?>) item);
+        }
+    }
+
+    static synchronized void remove(Item item) {
+        if (referrers == null) {
+            return;
+        }
+        String prefix = item.getFullName() + '/';
+        Predicate<Project<?, ?>> deleted = p -> p == item || p.getFullName().startsWith(prefix);
+        for (Project<?, ?> p : new ArrayList<>(referencedNames.keySet())) {
+            if (deleted.test(p)) {
+                unindex(p);
+            }
+        }
+        stale.removeIf(deleted);
+    }
+
+    static synchronized void invalidateAll() {
+        referrers = null;
+        referencedNames.clear();
+        stale.clear();
+    }
+
+    @Extension
+    public static final class ItemListenerImpl extends ItemListener {
+        @Override
+        public void onCreated(Item item) {
+            invalidate(item);
+        }
+
+        @Override
+        public void onCopied(Item src, Item item) {
+            invalidate(item);
+        }
+
+        @Override
+        public void onUpdated(Item item) {
+            invalidate(item);
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            // relative names now resolve from another folder
+            invalidate(item);
+        }
+
+        @Override
+        public void onDeleted(Item item) {
+            remove(item);
+        }
+
+        @Override
+        public void onLoaded() {
+            invalidateAll();
+        }
+    }
+
+    @Extension
+    public static final class SaveableListenerImpl extends SaveableListener {
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o instanceof Item) {
+                invalidate((Item) o);
+            }
+        }
+    }
+}
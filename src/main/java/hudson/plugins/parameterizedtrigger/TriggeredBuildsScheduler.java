@@ -0,0 +1,356 @@
+package hudson.plugins.parameterizedtrigger;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.model.AbstractBuild;
+import hudson.model.Action;
+import hudson.model.BuildListener;
+import hudson.model.Job;
+import hudson.model.Queue;
+import hudson.model.TaskListener;
+import hudson.model.queue.QueueTaskFuture;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.LogTaskListener;
+import hudson.util.StreamBuildListener;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Schedules the builds of a {@link BuildTriggerConfig}.
+ *
+ * <p>By default every build is submitted to the {@link Queue} on its own. With the {@code batchSize} system property
+ * set, the builds are collected and submitted in batches of that size, each batch under a single
+ * {@link Queue#withLock(Runnable)} section, pausing {@code batchPause} milliseconds between two batches. The builds
+ * of a batch are prepared before the lock is taken, so that only their submissions to the queue happen under it. A
+ * build refused within a batch is retried after the lock is released if the config retries refused builds. A config
+ * overriding {@link BuildTriggerConfig#schedule(AbstractBuild, Job, int, List, TaskListener)} or
+ * {@link BuildTriggerConfig#schedule(AbstractBuild, Job, List, TaskListener)} is never batched, as the
+ * batches submit the builds to the queue without calling them: its builds are scheduled one by one through the
+ * override.
+ *
+ * <p>A config limiting {@link BuildTriggerConfig#getMaxBuildsPerSecond()} or
+ * {@link BuildTriggerConfig#getMaxBuildsInFlight()} is never batched: each build is scheduled on its own once the
+ * rate allows it and enough of the builds scheduled before have started. In the background, the builds are scheduled
+ * from {@link Timer} as the throttle allows instead of waiting for it on the thread of the triggering build.
+ */
+final class TriggeredBuildsScheduler {
+
+    /**
+     * Number of builds submitted to the queue at once, 0 to submit them one by one.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "non-final for script console")
+    static int BATCH_SIZE = SystemProperties.getInteger(TriggeredBuildsScheduler.class.getName() + ".batchSize", 0);
+
+    /**
+     * Milliseconds to pause between two batches.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "non-final for script console")
+    static long BATCH_PAUSE = SystemProperties.getLong(TriggeredBuildsScheduler.class.getName() + ".batchPause", 0L);
+
+    private static final Logger LOGGER = Logger.getLogger(TriggeredBuildsScheduler.class.getName());
+
+    /**
+     * Milliseconds to wait on one build before checking again whether any of the builds in flight has started.
+     */
+    private static final long IN_FLIGHT_POLL = 1000;
+
+    private static final Class<?>[] SCHEDULE = {AbstractBuild.class, Job.class, List.class, TaskListener.class};
+    private static final Class<?>[] SCHEDULE_WITH_QUIET_PERIOD = {
+        AbstractBuild.class, Job.class, int.class, List.class, TaskListener.class
+    };
+
+    /**
+     * Whether a config class overrides one of the {@code schedule} methods that the batches bypass.
+     */
+    private static final ClassValue<Boolean> OVERRIDES_SCHEDULE = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            for (Class<?> c = type;
+                    c != BuildTriggerConfig.class && c != BlockableBuildTriggerConfig.class;
+                    c = c.getSuperclass()) {
+                for (Method method : c.getDeclaredMethods()) {
+                    if (method.getName().equals("schedule")
+                            && (Arrays.equals(method.getParameterTypes(), SCHEDULE)
+                                    || Arrays.equals(method.getParameterTypes(), SCHEDULE_WITH_QUIET_PERIOD))) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    };
+
+    private final BuildTriggerConfig config;
+    private final AbstractBuild<?, ?> build;
+    private final BuildListener listener;
+    private final int batchSize;
+    private final ListMultimap<Job, QueueTaskFuture<AbstractBuild>> futures = ArrayListMultimap.create();
+    private final List<QueueTaskFuture<AbstractBuild>> futuresInOrder = new ArrayList<>();
+    private final List<Job> batchJobs = new ArrayList<>();
+    private final List<List<Action>> batchActions = new ArrayList<>();
+    private boolean submittedBatch;
+    private final List<QueueTaskFuture> inFlight = new ArrayList<>();
+    private long nextPermit = System.nanoTime();
+    private final boolean inBackground;
+    private final List<Job> throttledJobs = new ArrayList<>();
+    private final List<List<Action>> throttledActions = new ArrayList<>();
+
+    TriggeredBuildsScheduler(BuildTriggerConfig config, AbstractBuild<?, ?> build, BuildListener listener) {
+        this(config, build, listener, false);
+    }
+
+    /**
+     * @param inBackground whether the builds of a throttled config are scheduled in the background, after
+     *     {@link #finish()} returned without them
+     */
+    TriggeredBuildsScheduler(
+            BuildTriggerConfig config, AbstractBuild<?, ?> build, BuildListener listener, boolean inBackground) {
+        this.config = config;
+        this.build = build;
+        this.listener = listener;
+        this.batchSize = OVERRIDES_SCHEDULE.get(config.getClass()) ? 0 : BATCH_SIZE;
+        this.inBackground = inBackground && config.isThrottled();
+    }
+
+    /**
+     * Schedules a build of the project, or adds it to the current batch.
+     */
+    void add(Job project, List<Action> list) throws InterruptedException, IOException {
+        if (inBackground) {
+            throttledJobs.add(project);
+            throttledActions.add(list);
+            return;
+        }
+        if (config.isThrottled()) {
+            awaitPermit();
+            QueueTaskFuture future = config.schedule(build, project, list, listener);
+            if (future != null) {
+                inFlight.add(future);
+            }
+            scheduled(project, future);
+            return;
+        }
+        if (batchSize <= 0) {
+            // Future can be null as schedule can return null
+            scheduled(project, config.schedule(build, project, list, listener));
+            return;
+        }
+        batchJobs.add(project);
+        batchActions.add(list);
+        if (batchJobs.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Submits the last batch, or starts scheduling the builds in the background.
+     */
+    void finish() throws InterruptedException, IOException {
+        if (inBackground) {
+            if (!throttledJobs.isEmpty()) {
+                listener.getLogger()
+                        .println("Triggering " + throttledJobs.size() + " builds in the background, as the limits of "
+                                + "the configuration allow");
+                Timer.get().submit(new Background(Jenkins.getAuthentication2()));
+            }
+            return;
+        }
+        flush();
+    }
+
+    /**
+     * @return the scheduled builds of each project, in the order they were scheduled, none if they are scheduled in
+     *     the background
+     */
+    ListMultimap<Job, QueueTaskFuture<AbstractBuild>> getFutures() {
+        return futures;
+    }
+
+    /**
+     * @return the scheduled builds of all the projects, in the order they were scheduled, none if they are scheduled
+     *     in the background
+     */
+    List<QueueTaskFuture<AbstractBuild>> getFuturesInOrder() {
+        return futuresInOrder;
+    }
+
+    private void flush() throws InterruptedException, IOException {
+        if (batchJobs.isEmpty()) {
+            return;
+        }
+        if (submittedBatch && BATCH_PAUSE > 0) {
+            Thread.sleep(BATCH_PAUSE);
+        }
+        submittedBatch = true;
+
+        // permission checks, logging and actions happen before taking the lock, only the submissions happen under it
+        List<Submission> submissions = new ArrayList<>(batchJobs.size());
+        for (int i = 0; i < batchJobs.size(); i++) {
+            submissions.add(config.prepareSchedule(build, batchJobs.get(i), batchActions.get(i), listener));
+        }
+        List<QueueTaskFuture> batchFutures = new ArrayList<>(batchJobs.size());
+        Queue.withLock(() -> {
+            for (Submission submission : submissions) {
+                batchFutures.add(submission != null ? submission.submit() : null);
+            }
+        });
+
+        for (int i = 0; i < batchJobs.size(); i++) {
+            QueueTaskFuture future = batchFutures.get(i);
+            if (future == null && submissions.get(i) != null && config.retriesRefusedBuilds()) {
+                future = config.schedule(build, batchJobs.get(i), batchActions.get(i), listener);
+            }
+            scheduled(batchJobs.get(i), future);
+        }
+        batchJobs.clear();
+        batchActions.clear();
+    }
+
+    /**
+     * Blocks until the throttle of the config allows to schedule one more build.
+     */
+    private void awaitPermit() throws InterruptedException {
+        int maxInFlight = config.getMaxBuildsInFlight();
+        boolean logged = false;
+        for (long delay = permitDelay(); delay > 0; delay = permitDelay()) {
+            if (maxInFlight > 0 && inFlight.size() >= maxInFlight) {
+                if (!logged) {
+                    logged = true;
+                    listener.getLogger()
+                            .println("Waiting for one of the " + inFlight.size()
+                                    + " triggered builds in the queue to start before triggering more");
+                }
+                try {
+                    // the oldest build is the most likely to start first
+                    inFlight.get(0).getStartCondition().get(IN_FLIGHT_POLL, TimeUnit.MILLISECONDS);
+                } catch (ExecutionException | CancellationException | TimeoutException e) {
+                    // cancelled or still waiting, either way checked again
+                }
+            } else {
+                Thread.sleep(delay);
+            }
+        }
+        takePermit();
+    }
+
+    /**
+     * @return milliseconds until the throttle of the config allows to schedule one more build, 0 if it allows it now
+     */
+    private long permitDelay() {
+        int maxInFlight = config.getMaxBuildsInFlight();
+        if (maxInFlight > 0) {
+            // a build leaves the flight once it starts, or once it is cancelled
+            inFlight.removeIf(future -> future.getStartCondition().isDone());
+            if (inFlight.size() >= maxInFlight) {
+                return IN_FLIGHT_POLL;
+            }
+        }
+        if (config.getMaxBuildsPerSecond() > 0) {
+            long wait = nextPermit - System.nanoTime();
+            if (wait > 0) {
+                return Math.max(1, TimeUnit.NANOSECONDS.toMillis(wait));
+            }
+        }
+        return 0;
+    }
+
+    private void takePermit() {
+        double maxPerSecond = config.getMaxBuildsPerSecond();
+        if (maxPerSecond > 0) {
+            nextPermit = Math.max(System.nanoTime(), nextPermit) + (long) (TimeUnit.SECONDS.toNanos(1) / maxPerSecond);
+        }
+    }
+
+    /**
+     * Schedules the builds of a throttled config as the throttle allows, coming back later rather than waiting when it
+     * does not allow one more build. The log of the triggering build may be closed by then, so it logs to
+     * {@link #LOGGER}.
+     */
+    private final class Background implements Runnable {
+        private final Authentication auth;
+        private final BuildListener log = new StreamBuildListener(
+                new LogTaskListener(LOGGER, Level.INFO).getLogger(), StandardCharsets.UTF_8);
+        private int next;
+
+        Background(Authentication auth) {
+            this.auth = auth;
+        }
+
+        @Override
+        public void run() {
+            try (ACLContext ctx = ACL.as2(auth)) {
+                while (next < throttledJobs.size()) {
+                    long delay = permitDelay();
+                    if (delay > 0) {
+                        Timer.get().schedule(this, delay, TimeUnit.MILLISECONDS);
+                        return;
+                    }
+                    takePermit();
+                    Job project = throttledJobs.get(next);
+                    QueueTaskFuture future = config.schedule(build, project, throttledActions.get(next), log);
+                    next++;
+                    if (future != null) {
+                        inFlight.add(future);
+                    } else {
+                        config.reportSchedulingError(build, project, log);
+                    }
+                }
+            } catch (InterruptedException | IOException | RuntimeException e) {
+                LOGGER.log(
+                        Level.WARNING,
+                        "Stopped triggering the builds of " + build + " after " + next + " of " + throttledJobs.size(),
+                        e);
+            }
+        }
+    }
+
+    private void scheduled(Job project, QueueTaskFuture future) {
+        if (future != null) {
+            futures.put(project, future);
+            futuresInOrder.add(future);
+        } else {
+            config.reportSchedulingError(build, project, listener);
+        }
+    }
+
+    /**
+     * A build prepared by {@link BuildTriggerConfig#prepareSchedule}, ready to be submitted to the queue.
+     */
+    static final class Submission {
+        private final Queue.Task task;
+        private final int quietPeriod;
+        private final List<Action> actions;
+
+        Submission(Queue.Task task, int quietPeriod, List<Action> actions) {
+            this.task = task;
+            this.quietPeriod = quietPeriod;
+            this.actions = actions;
+        }
+
+        /**
+         * @return the scheduled build, or {@code null} if the queue refused it
+         */
+        @CheckForNull
+        QueueTaskFuture submit() {
+            Queue.Item item = Queue.getInstance().schedule2(task, quietPeriod, actions).getItem();
+            return item != null ? item.getFuture() : null;
+        }
+    }
+}
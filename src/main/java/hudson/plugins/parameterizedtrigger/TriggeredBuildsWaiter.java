@@ -0,0 +1,301 @@
+package hudson.plugins.parameterizedtrigger;
+
+import com.google.common.collect.ListMultimap;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.AbortException;
+import hudson.Extension;
+import hudson.console.HyperlinkNote;
+import hudson.console.ModelHyperlinkNote;
+import hudson.model.AbstractBuild;
+import hudson.model.BuildListener;
+import hudson.model.Job;
+import hudson.model.Queue;
+import hudson.model.Result;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.User;
+import hudson.model.listeners.RunListener;
+import hudson.model.queue.QueueListener;
+import hudson.model.queue.QueueTaskFuture;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Waits for the builds scheduled by a blocking {@link BlockableBuildTriggerConfig} and maps their results
+ * onto the triggering build as configured by its {@link BlockingBehaviour}.
+ *
+ * <p>By default the builds are handled in the order they were scheduled. With
+ * {@link BlockingBehaviour#isCompletionOrder()} each build is handled as soon as it completes, and with
+ * {@link BlockingBehaviour#isFailFast()} the remaining builds are cancelled once the build step has failed.
+ *
+ * <p>In completion order, the executor of the triggering build sleeps until a build starts, completes or leaves the
+ * queue anywhere in Jenkins, as reported by {@link RunListenerImpl} and {@link QueueListenerImpl}, then looks at the
+ * builds it waits for.
+ */
+@Restricted(NoExternalUse.class)
+public final class TriggeredBuildsWaiter {
+
+    private static final Object CHANGES = new Object();
+
+    /**
+     * Number of times a build started, completed or left the queue, guarded by {@link #CHANGES}.
+     */
+    private static long changes;
+
+    private final AbstractBuild<?, ?> build;
+    private final BlockableBuildTriggerConfig config;
+    private final BuildListener listener;
+    private boolean buildStepResult;
+
+    TriggeredBuildsWaiter(AbstractBuild<?, ?> build, BlockableBuildTriggerConfig config, BuildListener listener) {
+        this.build = build;
+        this.config = config;
+        this.listener = listener;
+    }
+
+    /**
+     * Waits for the triggered builds.
+     *
+     * @param projectList the resolved projects of the config
+     * @param futures the builds scheduled by the config
+     * @param buildStepResult the result of the build step so far
+     * @return {@code false} if the build step has to fail, {@code true} otherwise
+     */
+    boolean waitFor(
+            List<Job> projectList, ListMultimap<Job, QueueTaskFuture<AbstractBuild>> futures, boolean buildStepResult)
+            throws InterruptedException, AbortException, ExecutionException {
+        this.buildStepResult = buildStepResult;
+        if (config.getBlock().isCompletionOrder()) {
+            waitInCompletionOrder(projectList, futures);
+        } else {
+            waitInScheduledOrder(projectList, futures);
+        }
+        return this.buildStepResult;
+    }
+
+    private void waitInScheduledOrder(List<Job> projectList, ListMultimap<Job, QueueTaskFuture<AbstractBuild>> futures)
+            throws InterruptedException, AbortException, ExecutionException {
+        for (Job p : projectList) {
+            if (!canBeScheduled(p)) {
+                continue;
+            }
+            for (QueueTaskFuture<AbstractBuild> future : futures.get(p)) {
+                try {
+                    if (future != null) {
+                        logWaiting(p);
+                        Run startedRun;
+                        try {
+                            startedRun = future.waitForStart();
+                        } catch (InterruptedException x) {
+                            logCancelling(p);
+                            future.cancel(true);
+                            throw x; // rethrow so that the triggering project get flagged as cancelled
+                        }
+                        logStarted(startedRun);
+
+                        if (!onCompleted(future.get()) && config.getBlock().isFailFast()) {
+                            cancelRemaining(futures.values());
+                            return;
+                        }
+                    } else {
+                        logNotTriggered(p);
+                    }
+                } catch (CancellationException x) {
+                    throw new AbortException(p.getFullDisplayName() + " aborted.");
+                }
+            }
+        }
+    }
+
+    private void waitInCompletionOrder(List<Job> projectList, ListMultimap<Job, QueueTaskFuture<AbstractBuild>> futures)
+            throws InterruptedException, AbortException, ExecutionException {
+        Map<QueueTaskFuture<AbstractBuild>, Job> pending = new LinkedHashMap<>();
+        for (Job p : projectList) {
+            if (!canBeScheduled(p)) {
+                continue;
+            }
+            for (QueueTaskFuture<AbstractBuild> future : futures.get(p)) {
+                if (future == null) {
+                    logNotTriggered(p);
+                    continue;
+                }
+                logWaiting(p);
+                pending.put(future, p);
+            }
+        }
+
+        // a build is handled once its run has left the building state, its future is done right after that
+        Map<QueueTaskFuture<AbstractBuild>, Run> started = new HashMap<>();
+        while (!pending.isEmpty()) {
+            long seen = getChanges();
+            boolean changed = false;
+            for (Iterator<Map.Entry<QueueTaskFuture<AbstractBuild>, Job>> it = pending.entrySet().iterator();
+                    it.hasNext(); ) {
+                Map.Entry<QueueTaskFuture<AbstractBuild>, Job> entry = it.next();
+                QueueTaskFuture<AbstractBuild> future = entry.getKey();
+                try {
+                    if (!started.containsKey(future) && future.getStartCondition().isDone()) {
+                        Run startedRun = future.waitForStart();
+                        started.put(future, startedRun);
+                        changed = true;
+                        logStarted(startedRun);
+                    }
+                    Run run = started.get(future);
+                    if (!future.isDone() && (run == null || run.isBuilding())) {
+                        continue;
+                    }
+                    it.remove();
+                    changed = true;
+                    if (!onCompleted(future.get()) && config.getBlock().isFailFast()) {
+                        cancelRemaining(pending.keySet());
+                        return;
+                    }
+                } catch (CancellationException x) {
+                    throw new AbortException(entry.getValue().getFullDisplayName() + " aborted.");
+                }
+            }
+            if (changed) {
+                continue;
+            }
+            try {
+                awaitChange(seen);
+            } catch (InterruptedException x) {
+                for (Map.Entry<QueueTaskFuture<AbstractBuild>, Job> entry : pending.entrySet()) {
+                    if (!started.containsKey(entry.getKey())) {
+                        logCancelling(entry.getValue());
+                        entry.getKey().cancel(true);
+                    }
+                }
+                throw x; // rethrow so that the triggering project get flagged as cancelled
+            }
+        }
+    }
+
+    private static long getChanges() {
+        synchronized (CHANGES) {
+            return changes;
+        }
+    }
+
+    /**
+     * Blocks until a build started, completed or left the queue since {@link #getChanges()} returned {@code seen}.
+     */
+    private static void awaitChange(long seen) throws InterruptedException {
+        synchronized (CHANGES) {
+            while (changes == seen) {
+                CHANGES.wait();
+            }
+        }
+    }
+
+    private static void changed() {
+        synchronized (CHANGES) {
+            changes++;
+            CHANGES.notifyAll();
+        }
+    }
+
+    /**
+     * Records a completed build and maps its result.
+     *
+     * @return {@code false} if the build step has failed so far
+     */
+    private boolean onCompleted(Run completedRun) {
+        listener.getLogger()
+                .println(HyperlinkNote.encodeTo('/' + completedRun.getUrl(), completedRun.getFullDisplayName())
+                        + " completed. Result was " + completedRun.getResult());
+        BuildInfoExporterAction.addBuildInfoExporterAction(
+                build, completedRun.getParent().getFullName(), completedRun.getNumber(), completedRun.getResult());
+
+        if (buildStepResult && config.getBlock().mapBuildStepResult(completedRun.getResult())) {
+            Result r = config.getBlock().mapBuildResult(completedRun.getResult());
+            if (r != null) { // The blocking job is not a success
+                build.setResult(r);
+            }
+        } else {
+            buildStepResult = false;
+        }
+        return buildStepResult;
+    }
+
+    private void cancelRemaining(Iterable<QueueTaskFuture<AbstractBuild>> futures) {
+        for (QueueTaskFuture<AbstractBuild> future : futures) {
+            if (future != null && !future.isDone()) {
+                future.cancel(true);
+            }
+        }
+        listener.getLogger().println("Build step failed: cancelled the remaining triggered builds.");
+    }
+
+    private boolean canBeScheduled(Job p) {
+        // handle non-buildable projects
+        if (config.canBeScheduled(p)) {
+            return true;
+        }
+        User user = User.current();
+        String userName = user != null ? ModelHyperlinkNote.encodeTo(user) : "unknown";
+        listener.getLogger()
+                .println("Skipping " + HyperlinkNote.encodeTo('/' + p.getUrl(), p.getFullDisplayName())
+                        + ". The project is either disabled,"
+                        + " or the authenticated user " + userName
+                        + " has no Item.BUILD permissions,"
+                        + " or the configuration has not been saved yet.");
+        return false;
+    }
+
+    private void logWaiting(Job p) {
+        listener.getLogger()
+                .println("Waiting for the completion of "
+                        + HyperlinkNote.encodeTo('/' + p.getUrl(), p.getFullDisplayName()));
+    }
+
+    private void logStarted(Run startedRun) {
+        listener.getLogger()
+                .println(HyperlinkNote.encodeTo('/' + startedRun.getUrl(), startedRun.getFullDisplayName())
+                        + " started.");
+    }
+
+    private void logCancelling(Job p) {
+        listener.getLogger()
+                .println("Build aborting: cancelling queued project "
+                        + HyperlinkNote.encodeTo('/' + p.getUrl(), p.getFullDisplayName()));
+    }
+
+    private void logNotTriggered(Job p) {
+        listener.getLogger()
+                .println("Skipping " + ModelHyperlinkNote.encodeTo(p)
+                        + ". The project was not triggered by some reason.");
+    }
+
+    @Extension
+    public static final class RunListenerImpl extends RunListener<Run<?, ?>> {
+        // the start condition of a build is done before it starts running
+
+        @Override
+        public void onStarted(Run<?, ?> run, TaskListener listener) {
+            changed();
+        }
+
+        @Override
+        public void onCompleted(Run<?, ?> run, @NonNull TaskListener listener) {
+            changed();
+        }
+    }
+
+    @Extension
+    public static final class QueueListenerImpl extends QueueListener {
+        // a cancelled item has its future cancelled before it leaves the queue
+
+        @Override
+        public void onLeft(Queue.LeftItem li) {
+            changed();
+        }
+    }
+}
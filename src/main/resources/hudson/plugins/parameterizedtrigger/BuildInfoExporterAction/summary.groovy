@@ -8,8 +8,43 @@ if (System.getProperty(DISABLE_ACTION_VIEWS_KEY) != null) {
 
 def l = namespace(lib.LayoutTagLib)
 
-def builds = my.triggeredBuilds
-if(builds.size() > 0) {
+def pageSize = my.summaryPageSize
+
+def pageOf = { String parameter ->
+	try {
+		return Math.max(0, Integer.parseInt(request.getParameter(parameter) ?: "0"))
+	} catch (NumberFormatException e) {
+		return 0
+	}
+}
+
+// the page of each list, a link to another page of one list keeps the page of the other
+def pages = [triggeredBuildsPage: pageOf("triggeredBuildsPage"), triggeredProjectsPage: pageOf("triggeredProjectsPage")]
+
+def pageLink = { String parameter, int page ->
+	return "?" + (pages + [(parameter): page]).collect { name, value -> "${name}=${value}" }.join("&")
+}
+
+def pager = { String parameter, int page, int total ->
+	if (total > pageSize) {
+		int first = page * pageSize
+		div {
+			text("${Math.min(first + 1, total)}-${Math.min(first + pageSize, total)} of ${total} ")
+			if (page > 0) {
+				a(href:pageLink(parameter, page - 1), "previous")
+				text(" ")
+			}
+			if (first + pageSize < total) {
+				a(href:pageLink(parameter, page + 1), "next")
+			}
+		}
+	}
+}
+
+def buildCount = my.triggeredBuildCount
+if(buildCount > 0) {
+	def page = pages.triggeredBuildsPage
+	def builds = my.getTriggeredBuilds(page * pageSize, pageSize)
 	h2("Subproject Builds")
 
 	ul(style:"list-style-type: none;") {
@@ -26,11 +61,14 @@ if(builds.size() > 0) {
 				}
 			}
 		}
-	} 
+	}
+	pager("triggeredBuildsPage", page, buildCount)
 }
 
-def projects = my.triggeredProjects
-if (projects.size() > 0) {
+def projectCount = my.triggeredProjectCount
+if (projectCount > 0) {
+	def page = pages.triggeredProjectsPage
+	def projects = my.getTriggeredProjects(page * pageSize, pageSize)
 	h2("Subprojects triggered but not blocked for")
 
 	ul(style:"list-style-type: none;") {
@@ -44,5 +82,5 @@ if (projects.size() > 0) {
 			}
 		}
 	}
+	pager("triggeredProjectsPage", page, projectCount)
 }
-
@@ -1,7 +1,5 @@
 package hudson.plugins.parameterizedtrigger.SubProjectsAction
 
-import hudson.Functions
-
 import static hudson.plugins.parameterizedtrigger.ParameterizedTriggerUtils.DISABLE_ACTION_VIEWS_KEY
 
 if (System.getProperty(DISABLE_ACTION_VIEWS_KEY) != null) {
@@ -16,16 +14,22 @@ if (!actions.empty) {
     my.subProjectActions.each { action ->
         ul(style:"list-style-type: none;") {
             action.configs.each { config ->
-                def projectInfo =  config.getProjectInfo(my.project)
+                def projectInfo = action.getProjectInfo(config)
+                if (projectInfo == null) {
+                    li {
+                        text(_("Looking up the subprojects, reload the page to see them."))
+                    }
+                    return
+                }
                 [projectInfo.fixed, projectInfo.dynamic, projectInfo.triggered].eachWithIndex { projectSet, i ->
-                    if (!projectSet.empty) {
+                    // the data is shared by all users, a heading over projects the user cannot read would reveal them
+                    def readable = action.getReadableProjects(projectSet)
+                    if (!readable.empty) {
                         h3(_(["Static","Dynamic","Other executed recently"][i]))
-                        projectSet.each { project ->
-                            if (Functions.hasPermission(project, project.READ)) {
-                                li {
-                                    j.jobLink(job:project)
-                                    text(_("(${config.block == null ? 'non-blocking' : 'blocking'})"))
-                                }
+                        readable.each { project ->
+                            li {
+                                j.jobLink(job:project)
+                                text(_("(${config.block == null ? 'non-blocking' : 'blocking'})"))
                             }
                         }
                     }
@@ -0,0 +1,182 @@
+package hudson.plugins.parameterizedtrigger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hudson.EnvVars;
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.Result;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class BuildInfoExporterActionTest {
+
+    private static final int THREADS = 8;
+    private static final int REFS_PER_THREAD = 50;
+
+    @Test
+    void concurrentlyAddedReferencesEndUpInOneAction(JenkinsRule j) throws Exception {
+        FreeStyleBuild build = j.buildAndAssertSuccess(j.createFreeStyleProject());
+        addConcurrently(build);
+
+        assertEquals(1, build.getActions(BuildInfoExporterAction.class).size());
+        assertReferencesOfEveryThread(build);
+    }
+
+    @Test
+    void concurrentlyAddedReferencesAreAllWrittenToTheBuildDirectory(JenkinsRule j) throws Exception {
+        FreeStyleBuild build = j.buildAndAssertSuccess(j.createFreeStyleProject());
+        addConcurrently(build);
+        build.save();
+
+        build.reload();
+        assertEquals(1, build.getActions(BuildInfoExporterAction.class).size());
+        assertReferencesOfEveryThread(build);
+    }
+
+    private static void addConcurrently(FreeStyleBuild build) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                String project = "project" + t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int n = 1; n <= REFS_PER_THREAD; n++) {
+                        BuildInfoExporterAction.addBuildInfoExporterAction(build, project, n, Result.SUCCESS);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void assertReferencesOfEveryThread(FreeStyleBuild build) {
+        EnvVars env = new EnvVars();
+        build.getAction(BuildInfoExporterAction.class).buildEnvVars(build, env);
+        for (int t = 0; t < THREADS; t++) {
+            assertEquals(Integer.toString(REFS_PER_THREAD), env.get("TRIGGERED_BUILD_RUN_COUNT_project" + t));
+            assertEquals(Integer.toString(REFS_PER_THREAD), env.get("TRIGGERED_BUILD_NUMBER_project" + t));
+        }
+    }
+
+    @Test
+    void variablesAreGroupedByProjectInTheOrderTheyWereFirstTriggered(JenkinsRule j) throws Exception {
+        FreeStyleBuild build = j.buildAndAssertSuccess(j.createFreeStyleProject());
+        BuildInfoExporterAction.addBuildInfoExporterAction(build, "zeta", 1, Result.SUCCESS);
+        BuildInfoExporterAction.addBuildInfoExporterAction(build, "not-blocking");
+        BuildInfoExporterAction action =
+                BuildInfoExporterAction.addBuildInfoExporterAction(build, "alpha", 7, Result.FAILURE);
+
+        EnvVars env = new EnvVars();
+        action.buildEnvVars(build, env);
+        assertEquals("zeta,alpha", env.get("TRIGGERED_JOB_NAMES"));
+        assertEquals("alpha", env.get("LAST_TRIGGERED_JOB_NAME"));
+        assertEquals("FAILURE", env.get("TRIGGERED_BUILD_RESULT_alpha_RUN_7"));
+        assertFalse(env.containsKey("TRIGGERED_BUILD_RUN_COUNT_not_blocking"));
+
+        // the index follows the references added after it was built
+        BuildInfoExporterAction.addBuildInfoExporterAction(build, "zeta", 2, Result.UNSTABLE);
+        env = new EnvVars();
+        action.buildEnvVars(build, env);
+        assertEquals("zeta,alpha", env.get("TRIGGERED_JOB_NAMES"));
+        assertEquals("zeta", env.get("LAST_TRIGGERED_JOB_NAME"));
+        assertEquals("1,2", env.get("TRIGGERED_BUILD_NUMBERS_zeta"));
+        assertEquals("2", env.get("TRIGGERED_BUILD_RUN_COUNT_zeta"));
+        assertEquals("UNSTABLE", env.get("TRIGGERED_BUILD_RESULT_zeta"));
+    }
+
+    @Test
+    void referencesAreKeptOutOfBuildXml(JenkinsRule j) throws Exception {
+        FreeStyleBuild build = j.buildAndAssertSuccess(j.createFreeStyleProject());
+        BuildInfoExporterAction.addBuildInfoExporterAction(build, "folder/project 1", 3, Result.SUCCESS);
+        BuildInfoExporterAction.addBuildInfoExporterAction(build, "project2");
+        BuildInfoExporterAction.addBuildInfoExporterAction(build, "folder/project 1", 4, Result.UNSTABLE);
+        build.save();
+
+        String buildXml = Files.readString(new File(build.getRootDir(), "build.xml").toPath());
+        assertFalse(buildXml.contains("project2"), buildXml);
+        assertTrue(new File(build.getRootDir(), BuildInfoExporterAction.REFERENCES_FILE).isFile());
+
+        build.reload();
+        EnvVars env = new EnvVars();
+        build.getAction(BuildInfoExporterAction.class).buildEnvVars(build, env);
+        assertEquals("folder_project_1", env.get("LAST_TRIGGERED_JOB_NAME"));
+        assertEquals("3,4", env.get("TRIGGERED_BUILD_NUMBERS_folder_project_1"));
+        assertEquals("UNSTABLE", env.get("TRIGGERED_BUILD_RESULT_folder_project_1"));
+        assertEquals("folder_project_1", env.get("TRIGGERED_JOB_NAMES"));
+    }
+
+    @Test
+    void triggeredBuildsArePaged(JenkinsRule j) throws Exception {
+        FreeStyleProject downstream = j.createFreeStyleProject("downstream");
+        for (int i = 0; i < 3; i++) {
+            j.buildAndAssertSuccess(downstream);
+        }
+        FreeStyleBuild build = j.buildAndAssertSuccess(j.createFreeStyleProject());
+        for (int n = 1; n <= 3; n++) {
+            BuildInfoExporterAction.addBuildInfoExporterAction(build, "downstream", n, Result.SUCCESS);
+        }
+        BuildInfoExporterAction action =
+                BuildInfoExporterAction.addBuildInfoExporterAction(build, "downstream");
+
+        assertEquals(3, action.getTriggeredBuildCount());
+        assertEquals(
+                Arrays.asList(downstream.getBuildByNumber(2), downstream.getBuildByNumber(3)),
+                action.getTriggeredBuilds(1, 5));
+        assertEquals(1, action.getTriggeredProjectCount());
+        assertEquals(Collections.singletonList(downstream), action.getTriggeredProjects(0, 1));
+        assertTrue(action.getTriggeredProjects(1, 1).isEmpty());
+        assertEquals(4, action.getBuildReferences().size());
+    }
+
+    @Test
+    void pagerLinksKeepThePageOfTheOtherList(JenkinsRule j) throws Exception {
+        FreeStyleProject downstream = j.createFreeStyleProject("downstream");
+        for (int i = 0; i < 3; i++) {
+            j.buildAndAssertSuccess(downstream);
+        }
+        j.createFreeStyleProject("other");
+        FreeStyleBuild build = j.buildAndAssertSuccess(j.createFreeStyleProject());
+        for (int n = 1; n <= 3; n++) {
+            BuildInfoExporterAction.addBuildInfoExporterAction(build, "downstream", n, Result.SUCCESS);
+        }
+        BuildInfoExporterAction.addBuildInfoExporterAction(build, "downstream");
+        BuildInfoExporterAction.addBuildInfoExporterAction(build, "other");
+
+        int pageSize = BuildInfoExporterAction.SUMMARY_PAGE_SIZE;
+        BuildInfoExporterAction.SUMMARY_PAGE_SIZE = 1;
+        try {
+            String page = j.createWebClient()
+                    .getPage(build, "?triggeredBuildsPage=1&triggeredProjectsPage=1")
+                    .getWebResponse()
+                    .getContentAsString();
+            assertTrue(page.contains("?triggeredBuildsPage=0&amp;triggeredProjectsPage=1"), page);
+            assertTrue(page.contains("?triggeredBuildsPage=2&amp;triggeredProjectsPage=1"), page);
+            assertTrue(page.contains("?triggeredBuildsPage=1&amp;triggeredProjectsPage=0"), page);
+        } finally {
+            BuildInfoExporterAction.SUMMARY_PAGE_SIZE = pageSize;
+        }
+    }
+}
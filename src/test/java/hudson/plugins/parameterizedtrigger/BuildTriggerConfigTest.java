@@ -3,8 +3,46 @@ package hudson.plugins.parameterizedtrigger;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import hudson.EnvVars;
+import hudson.ExtensionList;
+import hudson.model.AbstractBuild;
+import hudson.model.Action;
+import hudson.model.EnvironmentContributor;
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.ParametersAction;
+import hudson.model.ParametersDefinitionProperty;
+import hudson.model.Queue;
+import hudson.model.Result;
+import hudson.model.Run;
+import hudson.model.StringParameterDefinition;
+import hudson.model.StringParameterValue;
+import hudson.model.TaskListener;
+import hudson.model.User;
+import hudson.model.queue.QueueListener;
+import hudson.model.queue.QueueTaskFuture;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.FormValidation;
+import hudson.util.StreamBuildListener;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import jenkins.model.Jenkins;
 import org.junit.jupiter.api.Test;
 import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.MockAuthorizationStrategy;
+import org.jvnet.hudson.test.MockFolder;
+import org.jvnet.hudson.test.SleepBuilder;
+import org.jvnet.hudson.test.TestExtension;
 import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
 
 @WithJenkins
@@ -43,4 +81,399 @@ public class BuildTriggerConfigTest {
         assertEquals("project_2", triggers.get(0).getConfigs().get(0).getProjects());
         assertEquals("project_5", triggers.get(1).getConfigs().get(0).getProjects());
     }
+
+    @Test
+    public void testGetJobsFollowsCreatedAndDeletedJobs(JenkinsRule j) throws Exception {
+        j.createFreeStyleProject("project_1");
+        BuildTriggerConfig config =
+                new BuildTriggerConfig("project_1, project_2", ResultCondition.SUCCESS, false, null);
+
+        assertEquals(1, config.getJobs(j.jenkins, null).size());
+
+        FreeStyleProject p2 = j.createFreeStyleProject("project_2");
+        assertEquals(Arrays.asList(j.jenkins.getItem("project_1"), p2), config.getJobs(j.jenkins, null));
+
+        p2.delete();
+        assertEquals(1, config.getJobs(j.jenkins, null).size());
+    }
+
+    @Test
+    public void testGetJobsNeedsReadOnTheFolders(JenkinsRule j) throws Exception {
+        MockFolder folder = j.createFolder("folder");
+        FreeStyleProject downstream = folder.createProject(FreeStyleProject.class, "downstream");
+        j.jenkins.setSecurityRealm(j.createDummySecurityRealm());
+        MockAuthorizationStrategy auth = new MockAuthorizationStrategy()
+                .grant(Jenkins.READ)
+                .everywhere()
+                .to("alice")
+                .grant(Item.READ)
+                .onItems(downstream)
+                .to("alice");
+        j.jenkins.setAuthorizationStrategy(auth);
+        BuildTriggerConfig config =
+                new BuildTriggerConfig("folder/downstream", ResultCondition.SUCCESS, false, null);
+
+        try (ACLContext ctx = ACL.as(User.getById("alice", true))) {
+            assertEquals(Collections.emptyList(), config.getJobs(j.jenkins, null));
+        }
+
+        auth.grant(Item.READ).onItems(folder).to("alice");
+        try (ACLContext ctx = ACL.as(User.getById("alice", true))) {
+            assertEquals(Collections.singletonList(downstream), config.getJobs(j.jenkins, null));
+        }
+    }
+
+    @Test
+    public void testTooManyCombinationsAbortTheBuild(JenkinsRule j) throws Exception {
+        j.createFreeStyleProject("downstream");
+        FreeStyleProject upstream = j.createFreeStyleProject("upstream");
+        upstream.getBuildersList()
+                .add(new TriggerBuilder(new BlockableBuildTriggerConfig(
+                        "downstream",
+                        null,
+                        Collections.singletonList(new CounterBuildParameterFactory("1", "3", "1", "COUNT=$COUNT")),
+                        Collections.emptyList())));
+
+        int maxCombinations = BuildTriggerConfig.MAX_COMBINATIONS;
+        BuildTriggerConfig.MAX_COMBINATIONS = 2;
+        try {
+            FreeStyleBuild build = j.buildAndAssertStatus(Result.FAILURE, upstream);
+            j.assertLogContains("produce 3 combinations, more than the maximum of 2", build);
+            assertEquals(0, j.jenkins.getQueue().getItems().length);
+        } finally {
+            BuildTriggerConfig.MAX_COMBINATIONS = maxCombinations;
+        }
+    }
+
+    @Test
+    public void testStaticParametersAreEvaluatedOnceForAllCombinations(JenkinsRule j) throws Exception {
+        FreeStyleProject downstream = j.createFreeStyleProject("downstream");
+        downstream.addProperty(new ParametersDefinitionProperty(
+                new StringParameterDefinition("KEY", "default"), new StringParameterDefinition("COUNT", "0")));
+        FreeStyleProject upstream = j.createFreeStyleProject("upstream");
+        CountingParameters parameters = new CountingParameters();
+        upstream.getBuildersList()
+                .add(new TriggerBuilder(new BlockableBuildTriggerConfig(
+                        "downstream",
+                        new BlockingBehaviour("never", "never", "never"),
+                        Collections.singletonList(new CounterBuildParameterFactory("1", "3", "1", "COUNT=$COUNT")),
+                        Collections.singletonList(parameters))));
+
+        j.buildAndAssertSuccess(upstream);
+
+        assertEquals(1, parameters.calls.get());
+        assertEquals(3, downstream.getBuilds().size());
+        Set<String> counts = new HashSet<>();
+        for (FreeStyleBuild build : downstream.getBuilds()) {
+            ParametersAction action = build.getAction(ParametersAction.class);
+            assertEquals("value", action.getParameter("KEY").getValue());
+            counts.add((String) action.getParameter("COUNT").getValue());
+        }
+        assertEquals(new HashSet<>(Arrays.asList("1", "2", "3")), counts);
+    }
+
+    public static final class CountingParameters extends AbstractBuildParameters {
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public Action getAction(AbstractBuild<?, ?> build, TaskListener listener) {
+            calls.incrementAndGet();
+            return new ParametersAction(new StringParameterValue("KEY", "value"));
+        }
+    }
+
+    @Test
+    public void testBatchedSchedulingTriggersEveryBuild(JenkinsRule j) throws Exception {
+        j.jenkins.setNumExecutors(4);
+        FreeStyleProject p1 = j.createFreeStyleProject("project_1");
+        FreeStyleProject p2 = j.createFreeStyleProject("project_2");
+        FreeStyleProject p3 = j.createFreeStyleProject("project_3");
+        FreeStyleProject upstream = j.createFreeStyleProject("upstream");
+        upstream.getBuildersList()
+                .add(new TriggerBuilder(new BlockableBuildTriggerConfig(
+                        "project_1, project_2, project_3",
+                        new BlockingBehaviour("never", "never", "never"),
+                        Collections.emptyList())));
+
+        int batchSize = TriggeredBuildsScheduler.BATCH_SIZE;
+        TriggeredBuildsScheduler.BATCH_SIZE = 2;
+        try {
+            FreeStyleBuild build = j.buildAndAssertSuccess(upstream);
+            j.assertLogContains("project_3 #1 completed", build);
+            assertEquals(1, p1.getBuilds().size());
+            assertEquals(1, p2.getBuilds().size());
+            assertEquals(1, p3.getBuilds().size());
+        } finally {
+            TriggeredBuildsScheduler.BATCH_SIZE = batchSize;
+        }
+    }
+
+    @Test
+    public void testBatchedSchedulingCallsTheOverriddenSchedule(JenkinsRule j) throws Exception {
+        j.jenkins.setNumExecutors(4);
+        FreeStyleProject p1 = j.createFreeStyleProject("project_1");
+        FreeStyleProject p2 = j.createFreeStyleProject("project_2");
+        FreeStyleProject upstream = j.createFreeStyleProject("upstream");
+        CountingScheduleConfig config = new CountingScheduleConfig("project_1, project_2");
+        upstream.getBuildersList().add(new TriggerBuilder(config));
+
+        int batchSize = TriggeredBuildsScheduler.BATCH_SIZE;
+        TriggeredBuildsScheduler.BATCH_SIZE = 2;
+        try {
+            j.buildAndAssertSuccess(upstream);
+            assertEquals(2, CountingScheduleConfig.scheduled.get());
+            assertEquals(1, p1.getBuilds().size());
+            assertEquals(1, p2.getBuilds().size());
+        } finally {
+            TriggeredBuildsScheduler.BATCH_SIZE = batchSize;
+        }
+    }
+
+    public static class CountingScheduleConfig extends BlockableBuildTriggerConfig {
+        static final AtomicInteger scheduled = new AtomicInteger();
+
+        CountingScheduleConfig(String projects) {
+            super(projects, new BlockingBehaviour("never", "never", "never"), Collections.emptyList());
+        }
+
+        @Override
+        protected QueueTaskFuture schedule(
+                AbstractBuild<?, ?> build, Job project, List<Action> list, TaskListener listener)
+                throws InterruptedException, IOException {
+            scheduled.incrementAndGet();
+            return super.schedule(build, project, list, listener);
+        }
+    }
+
+    @Test
+    public void testPerformReturnsTheBuildsInSchedulingOrder(JenkinsRule j) throws Exception {
+        j.jenkins.setNumExecutors(4);
+        j.createFreeStyleProject("project_1");
+        j.createFreeStyleProject("project_2");
+        FreeStyleProject upstream = j.createFreeStyleProject("upstream");
+        FreeStyleBuild build = j.buildAndAssertSuccess(upstream);
+        BuildTriggerConfig config = new BuildTriggerConfig(
+                "project_1, project_2",
+                ResultCondition.SUCCESS,
+                false,
+                Collections.singletonList(new CounterBuildParameterFactory("1", "2", "1", "COUNT=$COUNT")),
+                Collections.emptyList());
+
+        List<QueueTaskFuture<AbstractBuild>> futures =
+                config.perform(build, null, new StreamBuildListener(System.out, StandardCharsets.UTF_8));
+        List<String> order = new ArrayList<>();
+        for (QueueTaskFuture<AbstractBuild> future : futures) {
+            AbstractBuild<?, ?> triggered = future.get();
+            order.add(triggered.getParent().getName() + " "
+                    + triggered.getAction(ParametersAction.class).getParameter("COUNT").getValue());
+        }
+        assertEquals(Arrays.asList("project_1 1", "project_2 1", "project_1 2", "project_2 2"), order);
+    }
+
+    @Test
+    public void testMaxBuildsInFlightWaitsForEarlierBuildsToStart(JenkinsRule j) throws Exception {
+        j.jenkins.setNumExecutors(4);
+        FreeStyleProject downstream = j.createFreeStyleProject("downstream");
+        downstream.setConcurrentBuild(true);
+        downstream.getBuildersList().add(new SleepBuilder(500));
+        FreeStyleProject upstream = j.createFreeStyleProject("upstream");
+        BlockableBuildTriggerConfig config = new BlockableBuildTriggerConfig(
+                "downstream",
+                null,
+                Collections.singletonList(new CounterBuildParameterFactory("1", "3", "1", "COUNT=$COUNT")),
+                Collections.emptyList());
+        config.setMaxBuildsInFlight(1);
+        upstream.getBuildersList().add(new TriggerBuilder(config));
+
+        j.buildAndAssertSuccess(upstream);
+        j.waitUntilNoActivity();
+
+        assertEquals(3, downstream.getBuilds().size());
+        assertEquals(1, ExtensionList.lookupSingleton(WaitingItemsCounter.class).max.get());
+    }
+
+    @TestExtension("testMaxBuildsInFlightWaitsForEarlierBuildsToStart")
+    public static class WaitingItemsCounter extends QueueListener {
+        final AtomicInteger waiting = new AtomicInteger();
+        final AtomicInteger max = new AtomicInteger();
+
+        @Override
+        public void onEnterWaiting(Queue.WaitingItem wi) {
+            if (wi.task instanceof FreeStyleProject && ((FreeStyleProject) wi.task).getName().equals("downstream")) {
+                max.accumulateAndGet(waiting.incrementAndGet(), Math::max);
+            }
+        }
+
+        @Override
+        public void onLeft(Queue.LeftItem li) {
+            if (li.task instanceof FreeStyleProject && ((FreeStyleProject) li.task).getName().equals("downstream")) {
+                waiting.decrementAndGet();
+            }
+        }
+    }
+
+    @Test
+    public void testThrottledPostBuildConfigIsTriggeredWithoutTheDependencyGraph(JenkinsRule j) throws Exception {
+        FreeStyleProject downstream = j.createFreeStyleProject("downstream");
+        FreeStyleProject upstream = j.createFreeStyleProject("upstream");
+        BuildTriggerConfig config = new BuildTriggerConfig("downstream", ResultCondition.SUCCESS, true, null);
+        config.setMaxBuildsPerSecond(1);
+        upstream.getPublishersList().add(new BuildTrigger(config));
+        j.jenkins.rebuildDependencyGraph();
+
+        assertTrue(upstream.getDownstreamProjects().isEmpty());
+        j.buildAndAssertSuccess(upstream);
+        awaitBuilds(j, downstream, 1);
+    }
+
+    @Test
+    public void testThrottledPostBuildConfigDoesNotKeepTheOnlyExecutor(JenkinsRule j) throws Exception {
+        j.jenkins.setNumExecutors(1);
+        FreeStyleProject downstream = j.createFreeStyleProject("downstream");
+        FreeStyleProject upstream = j.createFreeStyleProject("upstream");
+        BuildTriggerConfig config = new BuildTriggerConfig(
+                "downstream",
+                ResultCondition.SUCCESS,
+                true,
+                Collections.singletonList(new CounterBuildParameterFactory("1", "3", "1", "COUNT=$COUNT")),
+                Collections.emptyList());
+        config.setMaxBuildsInFlight(1);
+        upstream.getPublishersList().add(new BuildTrigger(config));
+
+        j.buildAndAssertSuccess(upstream);
+        awaitBuilds(j, downstream, 3);
+    }
+
+    private static void awaitBuilds(JenkinsRule j, FreeStyleProject project, int count) throws Exception {
+        // the builds of a throttled post-build config are scheduled in the background, the queue may be empty meanwhile
+        while (project.getBuilds().size() < count) {
+            Thread.sleep(100);
+        }
+        j.waitUntilNoActivity();
+        assertEquals(count, project.getBuilds().size());
+    }
+
+    @Test
+    public void testDynamicProjectNamesAreRecordedOnTheBuild(JenkinsRule j) throws Exception {
+        FreeStyleProject downstream = j.createFreeStyleProject("downstream_1");
+        FreeStyleProject upstream = j.createFreeStyleProject("upstream");
+        BlockableBuildTriggerConfig config = new BlockableBuildTriggerConfig(
+                "downstream_${BUILD_NUMBER}",
+                new BlockingBehaviour("never", "never", "never"),
+                Collections.emptyList());
+        upstream.getBuildersList().add(new TriggerBuilder(config));
+
+        FreeStyleBuild build = j.buildAndAssertSuccess(upstream);
+        ExpandedProjectNamesAction expanded = build.getAction(ExpandedProjectNamesAction.class);
+        assertEquals(
+                Collections.singletonList("downstream_1"), expanded.getExpandedNames("downstream_${BUILD_NUMBER}"));
+        assertEquals(
+                Collections.singletonList("downstream_1"),
+                expanded.getExpandedNames(config, "downstream_${BUILD_NUMBER}"));
+        assertTrue(config.getProjectInfo(upstream).getDynamic().contains(downstream));
+    }
+
+    @Test
+    public void testDynamicProjectsExpandTheEnvironmentOfABuildOnce(JenkinsRule j) throws Exception {
+        j.createFreeStyleProject("a_1");
+        j.createFreeStyleProject("b_1");
+        FreeStyleProject upstream = j.createFreeStyleProject("upstream");
+        j.buildAndAssertSuccess(upstream);
+        // configured after the build, so that the build has no record of the expanded names
+        BuildTriggerConfig config =
+                new BuildTriggerConfig("a_${BUILD_NUMBER}, b_${BUILD_NUMBER}", ResultCondition.SUCCESS, false, null);
+
+        EnvironmentCounter counter = ExtensionList.lookupSingleton(EnvironmentCounter.class);
+        counter.calls.set(0);
+        assertEquals(2, config.getProjectInfo(upstream).getDynamic().size());
+        assertEquals(1, counter.calls.get());
+    }
+
+    @TestExtension("testDynamicProjectsExpandTheEnvironmentOfABuildOnce")
+    public static class EnvironmentCounter extends EnvironmentContributor {
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public void buildEnvironmentFor(Run r, EnvVars envs, TaskListener listener) {
+            if (r.getParent().getName().equals("upstream")) {
+                calls.incrementAndGet();
+            }
+        }
+    }
+
+    @Test
+    public void testAutoCompleteProjectsFromFolder(JenkinsRule j) throws Exception {
+        MockFolder folder = j.createFolder("folder");
+        folder.createProject(FreeStyleProject.class, "a");
+        folder.createProject(FreeStyleProject.class, "b");
+        j.createFreeStyleProject("x");
+        BuildTriggerConfig.DescriptorImpl descriptor =
+                j.jenkins.getDescriptorByType(BuildTriggerConfig.DescriptorImpl.class);
+
+        assertEquals(Arrays.asList("a", "b", "../x"), descriptor.doAutoCompleteProjects("", folder).getValues());
+        assertEquals(Collections.singletonList("a"), descriptor.doAutoCompleteProjects("a", folder).getValues());
+        assertEquals(Collections.singletonList("../x"), descriptor.doAutoCompleteProjects("..", folder).getValues());
+
+        folder.createProject(FreeStyleProject.class, "ab");
+        j.jenkins.getItemByFullName("x", Job.class).renameTo("y");
+        assertEquals(Arrays.asList("a", "ab"), descriptor.doAutoCompleteProjects("a", folder).getValues());
+        assertEquals(
+                Collections.singletonList("folder/ab"),
+                descriptor.doAutoCompleteProjects("folder/ab", j.jenkins).getValues());
+        assertEquals(Collections.singletonList("../y"), descriptor.doAutoCompleteProjects("../", folder).getValues());
+    }
+
+    @Test
+    public void testDiscoverOnlyJobsAreSkipped(JenkinsRule j) throws Exception {
+        FreeStyleProject upstream = j.createFreeStyleProject("upstream");
+        FreeStyleProject downstream = j.createFreeStyleProject("downstream");
+        FreeStyleProject hidden = j.createFreeStyleProject("downstreams");
+        j.jenkins.setSecurityRealm(j.createDummySecurityRealm());
+        j.jenkins.setAuthorizationStrategy(new MockAuthorizationStrategy()
+                .grant(Jenkins.READ)
+                .everywhere()
+                .to("alice")
+                .grant(Item.READ, Item.CONFIGURE)
+                .onItems(upstream, downstream)
+                .to("alice")
+                .grant(Item.DISCOVER)
+                .onItems(hidden)
+                .to("alice"));
+        BuildTriggerConfig.DescriptorImpl descriptor =
+                j.jenkins.getDescriptorByType(BuildTriggerConfig.DescriptorImpl.class);
+
+        try (ACLContext ctx = ACL.as(User.getById("alice", true))) {
+            assertEquals(
+                    Collections.singletonList("downstream"),
+                    descriptor.doAutoCompleteProjects("down", j.jenkins).getValues());
+            // "downstreams" is nearer, but alice cannot read it
+            FormValidation validation = descriptor.doCheckProjects(upstream, "downstrems");
+            assertEquals(FormValidation.Kind.ERROR, validation.kind);
+            assertTrue(
+                    validation.renderHtml().contains(Messages.BuildTrigger_NoSuchProject("downstrems", "downstream")));
+        }
+    }
+
+    @Test
+    public void testCheckProjectsReportsEveryUnknownNameWithTheNearestOne(JenkinsRule j) throws Exception {
+        FreeStyleProject upstream = j.createFreeStyleProject("upstream");
+        j.createFreeStyleProject("downstream");
+        BuildTriggerConfig.DescriptorImpl descriptor =
+                j.jenkins.getDescriptorByType(BuildTriggerConfig.DescriptorImpl.class);
+
+        FormValidation validation = descriptor.doCheckProjects(upstream, "downstrem, other, downstream");
+        assertEquals(FormValidation.Kind.ERROR, validation.kind);
+        assertTrue(validation.renderHtml().contains(Messages.BuildTrigger_NoSuchProject("downstrem", "downstream")));
+        assertTrue(validation.renderHtml().contains("other"));
+    }
+
+    @Test
+    public void testNearestNameFollowsDeletedJobs(JenkinsRule j) throws Exception {
+        j.createFreeStyleProject("upstream");
+        FreeStyleProject downstream = j.createFreeStyleProject("downstream");
+
+        assertEquals("downstream", JobNameIndex.findNearest("downstrem"));
+        downstream.delete();
+        assertEquals("upstream", JobNameIndex.findNearest("downstrem"));
+    }
 }
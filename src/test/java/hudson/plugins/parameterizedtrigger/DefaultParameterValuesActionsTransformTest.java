@@ -0,0 +1,76 @@
+package hudson.plugins.parameterizedtrigger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import hudson.model.FreeStyleProject;
+import hudson.model.ParameterValue;
+import hudson.model.ParametersAction;
+import hudson.model.ParametersDefinitionProperty;
+import hudson.model.StringParameterDefinition;
+import hudson.model.StringParameterValue;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class DefaultParameterValuesActionsTransformTest {
+
+    public static final class CountingParameterDefinition extends StringParameterDefinition {
+        final AtomicInteger calls = new AtomicInteger();
+
+        public CountingParameterDefinition(String name, String defaultValue) {
+            super(name, defaultValue);
+        }
+
+        @Override
+        public StringParameterValue getDefaultParameterValue() {
+            calls.incrementAndGet();
+            return super.getDefaultParameterValue();
+        }
+    }
+
+    @Test
+    void evaluatingDefaultsOnceEvaluatesThemOncePerProject(JenkinsRule j) throws Exception {
+        CountingParameterDefinition definition1 = new CountingParameterDefinition("KEY", "value1");
+        CountingParameterDefinition definition2 = new CountingParameterDefinition("KEY", "value2");
+        FreeStyleProject project1 = j.createFreeStyleProject("project1");
+        project1.addProperty(new ParametersDefinitionProperty(definition1));
+        FreeStyleProject project2 = j.createFreeStyleProject("project2");
+        project2.addProperty(new ParametersDefinitionProperty(definition2));
+
+        DefaultParameterValuesActionsTransform transform =
+                DefaultParameterValuesActionsTransform.evaluatingDefaultsOnce();
+        for (int i = 0; i < 3; i++) {
+            assertValue("value1", transform.transformParametersAction(new ParametersAction(), project1));
+            assertValue("value2", transform.transformParametersAction(new ParametersAction(), project2));
+        }
+        // the values given for the build still win
+        assertValue(
+                "given",
+                transform.transformParametersAction(
+                        new ParametersAction(new StringParameterValue("KEY", "given")), project1));
+
+        assertEquals(1, definition1.calls.get());
+        assertEquals(1, definition2.calls.get());
+    }
+
+    @Test
+    void defaultsAreEvaluatedOnEveryCallOtherwise(JenkinsRule j) throws Exception {
+        CountingParameterDefinition definition = new CountingParameterDefinition("KEY", "value");
+        FreeStyleProject project = j.createFreeStyleProject("project");
+        project.addProperty(new ParametersDefinitionProperty(definition));
+
+        DefaultParameterValuesActionsTransform transform = new DefaultParameterValuesActionsTransform();
+        for (int i = 0; i < 3; i++) {
+            assertValue("value", transform.transformParametersAction(new ParametersAction(), project));
+        }
+
+        assertEquals(3, definition.calls.get());
+    }
+
+    private static void assertValue(String expected, ParametersAction action) {
+        ParameterValue value = action.getParameter("KEY");
+        assertEquals(expected, ((StringParameterValue) value).getValue());
+    }
+}
@@ -0,0 +1,27 @@
+package hudson.plugins.parameterizedtrigger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hudson.model.FreeStyleProject;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class DeferredProjectSaverTest {
+
+    @Test
+    void renamedReferencesAreSavedInTheBackground(JenkinsRule j) throws Exception {
+        FreeStyleProject downstream = j.createFreeStyleProject("downstream");
+        FreeStyleProject upstream = j.createFreeStyleProject("upstream");
+        upstream.getPublishersList()
+                .add(new BuildTrigger(Collections.singletonList(
+                        new BuildTriggerConfig("downstream", ResultCondition.SUCCESS, false, null))));
+
+        downstream.renameTo("renamed");
+        DeferredProjectSaver.flush();
+
+        assertTrue(upstream.getConfigFile().asString().contains("<projects>renamed</projects>"));
+    }
+}
@@ -0,0 +1,83 @@
+package hudson.plugins.parameterizedtrigger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import hudson.EnvVars;
+import hudson.model.FreeStyleBuild;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class ExpandedProjectNamesActionTest {
+
+    @Test
+    void configsWithTheSameDynamicNameKeepTheirOwnExpansion(JenkinsRule j) throws Exception {
+        FreeStyleBuild build = j.buildAndAssertSuccess(j.createFreeStyleProject());
+        BuildTriggerConfig first = new BuildTriggerConfig("${TARGET}", ResultCondition.SUCCESS, false, null);
+        BuildTriggerConfig second = new BuildTriggerConfig("${TARGET}", ResultCondition.SUCCESS, false, null);
+
+        ExpandedProjectNamesAction.record(build, first, new EnvVars("TARGET", "a"));
+        ExpandedProjectNamesAction.record(build, second, new EnvVars("TARGET", "b,c"));
+
+        ExpandedProjectNamesAction action = build.getAction(ExpandedProjectNamesAction.class);
+        assertEquals(Collections.singletonList("a"), action.getExpandedNames(first, "${TARGET}"));
+        assertEquals(Arrays.asList("b", "c"), action.getExpandedNames(second, "${TARGET}"));
+        assertEquals(Arrays.asList("a", "b", "c"), action.getExpandedNames("${TARGET}"));
+        assertNull(action.getExpandedNames(first, "${OTHER}"));
+
+        // the configs are not known once the build is reloaded
+        build.save();
+        build.reload();
+        action = build.getAction(ExpandedProjectNamesAction.class);
+        assertNull(action.getExpandedNames(first, "${TARGET}"));
+        assertEquals(Arrays.asList("a", "b", "c"), action.getExpandedNames("${TARGET}"));
+    }
+
+    @Test
+    void concurrentlyTriggeringConfigsShareOneAction(JenkinsRule j) throws Exception {
+        FreeStyleBuild build = j.buildAndAssertSuccess(j.createFreeStyleProject());
+        int threads = 8;
+        List<BuildTriggerConfig> configs = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            configs.add(new BuildTriggerConfig("project_${N}", ResultCondition.SUCCESS, false, null));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                BuildTriggerConfig config = configs.get(t);
+                EnvVars env = new EnvVars("N", Integer.toString(t));
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    ExpandedProjectNamesAction.record(build, config, env);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, build.getActions(ExpandedProjectNamesAction.class).size());
+        ExpandedProjectNamesAction action = build.getAction(ExpandedProjectNamesAction.class);
+        for (int t = 0; t < threads; t++) {
+            assertEquals(
+                    Collections.singletonList("project_" + t), action.getExpandedNames(configs.get(t), "project_${N}"));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package hudson.plugins.parameterizedtrigger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hudson.EnvVars;
+import hudson.FilePath;
+import hudson.Launcher;
+import hudson.matrix.AxisList;
+import hudson.matrix.MatrixBuild;
+import hudson.matrix.MatrixProject;
+import hudson.matrix.TextAxis;
+import hudson.model.AbstractBuild;
+import hudson.model.BuildListener;
+import hudson.model.EnvironmentContributor;
+import hudson.model.ParametersAction;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.util.StreamTaskListener;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.TestBuilder;
+import org.jvnet.hudson.test.TestExtension;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class FileBuildParametersTest {
+
+    private int maxParallelReads;
+
+    @BeforeEach
+    void save() {
+        maxParallelReads = FileBuildParameters.MAX_PARALLEL_READS;
+    }
+
+    @AfterEach
+    void restore() {
+        FileBuildParameters.MAX_PARALLEL_READS = maxParallelReads;
+    }
+
+    @Test
+    void childrenReadInParallelGiveTheValuesAndTheLogOfSerialReads(JenkinsRule j) throws Exception {
+        MatrixBuild build = buildChildren(j, null);
+        FileBuildParameters parameters = new FileBuildParameters("properties.txt", null, false, true, null, false);
+
+        FileBuildParameters.MAX_PARALLEL_READS = 1;
+        ByteArrayOutputStream serialLog = new ByteArrayOutputStream();
+        ParametersAction serial = (ParametersAction) parameters.getAction(build, listener(serialLog));
+        FileBuildParameters.MAX_PARALLEL_READS = 4;
+        ByteArrayOutputStream parallelLog = new ByteArrayOutputStream();
+        ParametersAction parallel = (ParametersAction) parameters.getAction(build, listener(parallelLog));
+
+        assertEquals("c6", serial.getParameter("VALUE_c6").getValue());
+        assertEquals(serial.getParameters(), parallel.getParameters());
+        // the log of every child is replayed in the order of the children
+        assertTrue(serialLog.toString(StandardCharsets.UTF_8).contains("Environment of child=c1"));
+        assertEquals(serialLog.toString(StandardCharsets.UTF_8), parallelLog.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void readFailureIsReportedAsWithSerialReads(JenkinsRule j) throws Exception {
+        MatrixBuild build = buildChildren(j, "c3");
+        FileBuildParameters parameters = new FileBuildParameters("properties.txt", null, false, true, null, false);
+
+        FileBuildParameters.MAX_PARALLEL_READS = 1;
+        ByteArrayOutputStream serialLog = new ByteArrayOutputStream();
+        IOException serial = assertThrows(IOException.class, () -> parameters.getAction(build, listener(serialLog)));
+        FileBuildParameters.MAX_PARALLEL_READS = 4;
+        ByteArrayOutputStream parallelLog = new ByteArrayOutputStream();
+        IOException parallel =
+                assertThrows(IOException.class, () -> parameters.getAction(build, listener(parallelLog)));
+
+        assertEquals(serial.getClass(), parallel.getClass());
+        assertEquals(serial.getMessage(), parallel.getMessage());
+        // nothing is logged for the children after the one that failed
+        assertEquals(serialLog.toString(StandardCharsets.UTF_8), parallelLog.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param failingChild the child whose properties file is a directory, {@code null} for none
+     * @return a build of six children, each with a properties file giving two parameters
+     */
+    private static MatrixBuild buildChildren(JenkinsRule j, String failingChild) throws Exception {
+        MatrixProject project = j.createProject(MatrixProject.class);
+        project.setAxes(new AxisList(new TextAxis("child", "c1", "c2", "c3", "c4", "c5", "c6")));
+        project.getBuildersList().add(new TestBuilder() {
+            @Override
+            public boolean perform(AbstractBuild<?, ?> build, Launcher launcher, BuildListener listener)
+                    throws InterruptedException, IOException {
+                String child = build.getBuildVariables().get("child");
+                FilePath file = build.getWorkspace().child("properties.txt");
+                if (child.equals(failingChild)) {
+                    file.mkdirs();
+                } else {
+                    file.write("VALUE_" + child + "=" + child + "\nLAST=" + child, "UTF-8");
+                }
+                return true;
+            }
+        });
+        return j.buildAndAssertSuccess(project);
+    }
+
+    private static TaskListener listener(ByteArrayOutputStream log) {
+        return new StreamTaskListener(log, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Logs which child the environment is built for, as the properties files are read.
+     */
+    @TestExtension
+    public static class ChildLogger extends EnvironmentContributor {
+        @Override
+        public void buildEnvironmentFor(Run r, EnvVars envs, TaskListener listener) {
+            if (r instanceof AbstractBuild) {
+                String child = ((AbstractBuild<?, ?>) r).getBuildVariables().get("child");
+                if (child != null) {
+                    listener.getLogger().println("Environment of child=" + child);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package hudson.plugins.parameterizedtrigger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hudson.FilePath;
+import hudson.Launcher;
+import hudson.model.AbstractBuild;
+import hudson.model.BuildListener;
+import hudson.model.FileParameterDefinition;
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.ParametersDefinitionProperty;
+import hudson.plugins.parameterizedtrigger.FileBuildParameterFactory.NoFilesFoundEnum;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.TestBuilder;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class ParameterFileStoreTest {
+
+    private boolean enabled;
+
+    @BeforeEach
+    void enable() {
+        enabled = ParameterFileStore.ENABLED;
+        ParameterFileStore.ENABLED = true;
+    }
+
+    @AfterEach
+    void restore() {
+        ParameterFileStore.ENABLED = enabled;
+    }
+
+    @Test
+    void identicalFilesAreStoredOnceUntilNoBuildLinksToThem(JenkinsRule j) throws Exception {
+        Path source = j.jenkins.getRootDir().toPath().resolve("workspace/file.bin");
+        Files.createDirectories(source.getParent());
+        Files.writeString(source, "content");
+        Path first = j.jenkins.getRootDir().toPath().resolve("first/parameter-files/file.bin");
+        Path second = j.jenkins.getRootDir().toPath().resolve("second/parameter-files/file.bin");
+
+        ParameterFileStore.copy(new FilePath(source.toFile()), first.toFile());
+        ParameterFileStore.copy(new FilePath(source.toFile()), second.toFile());
+
+        assertTrue(Files.isSameFile(first, second));
+        assertEquals("content", Files.readString(second));
+        assertEquals(1, storedFiles());
+        assertFalse(Files.exists(second.resolveSibling("file.bin.link")));
+
+        Files.delete(first);
+        ParameterFileStore.sweep();
+        assertEquals(1, storedFiles());
+
+        Files.delete(second);
+        ParameterFileStore.sweep();
+        assertEquals(0, storedFiles());
+    }
+
+    @Test
+    void triggeredBuildsLinkToTheFileOfTheTriggeringBuild(JenkinsRule j) throws Exception {
+        FreeStyleProject downstream = j.createFreeStyleProject("downstream");
+        downstream.addProperty(new ParametersDefinitionProperty(new FileParameterDefinition("FILE", null)));
+        FreeStyleProject upstream = j.createFreeStyleProject("upstream");
+        upstream.getBuildersList().add(writeFile("content"));
+        upstream.getBuildersList().add(trigger(new BlockingBehaviour("never", "never", "never")));
+
+        FreeStyleBuild build = j.buildAndAssertSuccess(upstream);
+
+        FreeStyleBuild triggered = downstream.getLastBuild();
+        Path copy = triggered.getRootDir().toPath().resolve("fileParameters/FILE");
+        assertEquals("content", Files.readString(copy));
+        assertTrue(Files.isSameFile(build.getRootDir().toPath().resolve("parameter-files/file.bin"), copy));
+        assertEquals(1, storedFiles());
+    }
+
+    @Test
+    void triggeringAgainDoesNotWriteThroughTheSharedFile(JenkinsRule j) throws Exception {
+        Path source = j.jenkins.getRootDir().toPath().resolve("workspace/file.bin");
+        Files.createDirectories(source.getParent());
+        Files.writeString(source, "first");
+        Path other = j.jenkins.getRootDir().toPath().resolve("other/parameter-files/file.bin");
+        ParameterFileStore.copy(new FilePath(source.toFile()), other.toFile());
+
+        j.createFreeStyleProject("downstream");
+        FreeStyleProject upstream = j.createFreeStyleProject("upstream");
+        for (String content : new String[] {"first", "second"}) {
+            upstream.getBuildersList().add(writeFile(content));
+            upstream.getBuildersList().add(trigger(null));
+        }
+
+        FreeStyleBuild build = j.buildAndAssertSuccess(upstream);
+
+        assertEquals("first", Files.readString(other));
+        assertEquals("second", Files.readString(build.getRootDir().toPath().resolve("parameter-files/file.bin")));
+    }
+
+    private static TestBuilder writeFile(String content) {
+        return new TestBuilder() {
+            @Override
+            public boolean perform(AbstractBuild<?, ?> build, Launcher launcher, BuildListener listener)
+                    throws InterruptedException, IOException {
+                build.getWorkspace().child("file.bin").write(content, "UTF-8");
+                return true;
+            }
+        };
+    }
+
+    private static TriggerBuilder trigger(BlockingBehaviour block) {
+        return new TriggerBuilder(new BlockableBuildTriggerConfig(
+                "downstream",
+                block,
+                Collections.singletonList(new BinaryFileParameterFactory("FILE", "file.bin", NoFilesFoundEnum.FAIL)),
+                Collections.emptyList()));
+    }
+
+    private static long storedFiles() throws Exception {
+        try (Stream<Path> files = Files.walk(ParameterFileStore.getRoot().toPath())) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+}
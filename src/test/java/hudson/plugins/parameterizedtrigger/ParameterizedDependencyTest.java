@@ -0,0 +1,47 @@
+package hudson.plugins.parameterizedtrigger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import hudson.model.AbstractBuild;
+import hudson.model.Action;
+import hudson.model.FreeStyleProject;
+import hudson.model.ParametersAction;
+import hudson.model.StringParameterValue;
+import hudson.model.TaskListener;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class ParameterizedDependencyTest {
+
+    public static final class CountingParameters extends AbstractBuildParameters {
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public Action getAction(AbstractBuild<?, ?> build, TaskListener listener) {
+            calls.incrementAndGet();
+            return new ParametersAction(new StringParameterValue("KEY", "value"));
+        }
+    }
+
+    @Test
+    void baseActionsAreComputedOnceForEveryDownstreamProject(JenkinsRule j) throws Exception {
+        FreeStyleProject downstream1 = j.createFreeStyleProject("downstream1");
+        FreeStyleProject downstream2 = j.createFreeStyleProject("downstream2");
+        FreeStyleProject upstream = j.createFreeStyleProject("upstream");
+        CountingParameters parameters = new CountingParameters();
+        upstream.getPublishersList()
+                .add(new BuildTrigger(
+                        new BuildTriggerConfig("downstream1, downstream2", ResultCondition.SUCCESS, parameters)));
+        j.jenkins.rebuildDependencyGraph();
+
+        j.buildAndAssertSuccess(upstream);
+        j.waitUntilNoActivity();
+
+        assertEquals(1, downstream1.getBuilds().size());
+        assertEquals(1, downstream2.getBuilds().size());
+        assertEquals(1, parameters.calls.get());
+    }
+}
@@ -0,0 +1,48 @@
+package hudson.plugins.parameterizedtrigger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import hudson.model.ParameterValue;
+import hudson.model.ParametersAction;
+import hudson.model.StringParameterValue;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class ParametersBuilderTest {
+
+    @Test
+    void mergesLikeMergeParameters() {
+        ParametersAction base = new ParametersAction(
+                new StringParameterValue("A", "base"), new StringParameterValue("B", "base"));
+        ParametersAction overlay = new ParametersAction(
+                new StringParameterValue("C", "overlay"), new StringParameterValue("A", "overlay"));
+
+        assertEquals(
+                ParameterizedTriggerUtils.mergeParameters(base, overlay).getParameters(),
+                new ParametersBuilder(base).add(overlay).build().getParameters());
+    }
+
+    @Test
+    void valuesAddedFirstDoNotReplaceCurrentOnes() {
+        ParametersAction defaults = new ParametersAction(
+                new StringParameterValue("A", "default"), new StringParameterValue("B", "default"));
+        ParametersAction params = new ParametersAction(
+                new StringParameterValue("C", "value"), new StringParameterValue("B", "value"));
+
+        assertEquals(
+                ParameterizedTriggerUtils.mergeParameters(defaults, params).getParameters(),
+                new ParametersBuilder(params)
+                        .addAllFirst(defaults.getParameters())
+                        .build()
+                        .getParameters());
+        assertEquals(
+                Arrays.<ParameterValue>asList(
+                        new StringParameterValue("A", "default"),
+                        new StringParameterValue("B", "value"),
+                        new StringParameterValue("C", "value")),
+                new ParametersBuilder(params)
+                        .addAllFirst(defaults.getParameters())
+                        .build()
+                        .getParameters());
+    }
+}
@@ -0,0 +1,41 @@
+package hudson.plugins.parameterizedtrigger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hudson.EnvVars;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+
+class ProjectNamesTest {
+
+    @Test
+    void staticNamesAreNotExpanded() {
+        ProjectNames names = ProjectNames.parse("project1, folder/project2 ,project3");
+
+        assertFalse(names.isDynamic());
+        assertEquals(Arrays.asList("project1", "folder/project2", "project3"), names.getNames());
+        assertSame(names.getNames(), names.expand(new EnvVars("project1", "other")));
+    }
+
+    @Test
+    void dynamicNamesAreExpandedInPlace() {
+        ProjectNames names = ProjectNames.parse("project1, ${DOWNSTREAM}, project4");
+
+        assertTrue(names.isDynamic());
+        assertEquals(Collections.singletonList("${DOWNSTREAM}"), names.getDynamicNames());
+
+        EnvVars env = new EnvVars("DOWNSTREAM", "project2, project3");
+        assertEquals(Arrays.asList("project1", "project2", "project3", "project4"), names.expand(env));
+        assertEquals(Arrays.asList("project2", "project3"), names.expandDynamic(env));
+    }
+
+    @Test
+    void emptyList() {
+        assertTrue(ProjectNames.parse(null).getNames().isEmpty());
+        assertTrue(ProjectNames.parse(",,").getNames().isEmpty());
+    }
+}
@@ -0,0 +1,144 @@
+package hudson.plugins.parameterizedtrigger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import hudson.ExtensionList;
+import hudson.model.Action;
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.Queue;
+import hudson.model.TaskListener;
+import hudson.model.queue.QueueTaskFuture;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.TestExtension;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+class ScheduleRetryQueueTest {
+
+    @Test
+    void retriesUntilTheQueueAccepts() throws Exception {
+        QueueTaskFuture future = mock(QueueTaskFuture.class);
+        AtomicInteger attempts = new AtomicInteger();
+
+        QueueTaskFuture result = ScheduleRetryQueue.get()
+                .schedule(
+                        new ScheduleRetryQueue.Attempt() {
+                            @Override
+                            public QueueTaskFuture schedule() {
+                                ScheduleRetryQueue.get().wake("test");
+                                return attempts.incrementAndGet() < 3 ? null : future;
+                            }
+
+                            @Override
+                            public boolean canRetry() {
+                                return true;
+                            }
+                        },
+                        "test",
+                        TaskListener.NULL);
+
+        assertSame(future, result);
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void wakesDoNotRetryMoreOftenThanTheInitialDelay() throws Exception {
+        QueueTaskFuture future = mock(QueueTaskFuture.class);
+        List<Long> attempts = new CopyOnWriteArrayList<>();
+
+        QueueTaskFuture result = ScheduleRetryQueue.get()
+                .schedule(
+                        new ScheduleRetryQueue.Attempt() {
+                            @Override
+                            public QueueTaskFuture schedule() {
+                                attempts.add(System.currentTimeMillis());
+                                for (int i = 0; i < 100; i++) {
+                                    ScheduleRetryQueue.get().wake("test");
+                                    ScheduleRetryQueue.get().wake("other");
+                                }
+                                return attempts.size() < 3 ? null : future;
+                            }
+
+                            @Override
+                            public boolean canRetry() {
+                                return true;
+                            }
+                        },
+                        "test",
+                        TaskListener.NULL);
+
+        assertSame(future, result);
+        assertEquals(3, attempts.size());
+        assertTrue(attempts.get(2) - attempts.get(1) >= ScheduleRetryQueue.INITIAL_DELAY);
+    }
+
+    @Test
+    void givesUpWhenTheBuildCannotBeRetried() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+
+        QueueTaskFuture result = ScheduleRetryQueue.get()
+                .schedule(
+                        new ScheduleRetryQueue.Attempt() {
+                            @Override
+                            public QueueTaskFuture schedule() {
+                                attempts.incrementAndGet();
+                                return null;
+                            }
+
+                            @Override
+                            public boolean canRetry() {
+                                return false;
+                            }
+                        },
+                        "test",
+                        TaskListener.NULL);
+
+        assertNull(result);
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    @WithJenkins
+    void retriesABuildRefusedByTheQueue(JenkinsRule j) throws Exception {
+        FreeStyleProject downstream = j.createFreeStyleProject("downstream");
+        FreeStyleProject upstream = j.createFreeStyleProject("upstream");
+        upstream.getBuildersList()
+                .add(new TriggerBuilder(new BlockableBuildTriggerConfig(
+                        "downstream", new BlockingBehaviour("never", "never", "never"), Collections.emptyList())));
+        RefusingDecisionHandler handler = ExtensionList.lookupSingleton(RefusingDecisionHandler.class);
+
+        QueueTaskFuture<FreeStyleBuild> build = upstream.scheduleBuild2(0);
+        assertTrue(handler.refused.await(1, TimeUnit.MINUTES));
+        assertTrue(downstream.getBuilds().isEmpty());
+        handler.refusing = false;
+
+        j.assertBuildStatusSuccess(build);
+        assertEquals(1, downstream.getBuilds().size());
+    }
+
+    @TestExtension("retriesABuildRefusedByTheQueue")
+    public static class RefusingDecisionHandler extends Queue.QueueDecisionHandler {
+        final CountDownLatch refused = new CountDownLatch(1);
+        volatile boolean refusing = true;
+
+        @Override
+        public boolean shouldSchedule(Queue.Task p, List<Action> actions) {
+            if (refusing && p instanceof FreeStyleProject && ((FreeStyleProject) p).getName().equals("downstream")) {
+                refused.countDown();
+                return false;
+            }
+            return true;
+        }
+    }
+}
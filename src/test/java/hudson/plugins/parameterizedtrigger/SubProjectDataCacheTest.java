@@ -0,0 +1,102 @@
+package hudson.plugins.parameterizedtrigger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hudson.model.FreeStyleProject;
+import hudson.model.Item;
+import java.util.Collections;
+import jenkins.model.Jenkins;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.MockAuthorizationStrategy;
+import org.jvnet.hudson.test.MockFolder;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class SubProjectDataCacheTest {
+
+    @Test
+    void dataIsComputedInTheBackgroundAndRecomputedOnChanges(JenkinsRule j) throws Exception {
+        FreeStyleProject downstream = j.createFreeStyleProject("downstream");
+        FreeStyleProject upstream = j.createFreeStyleProject("upstream");
+        BlockableBuildTriggerConfig config =
+                new BlockableBuildTriggerConfig("downstream, other", null, Collections.emptyList());
+
+        SubProjectData data = SubProjectDataCache.await(upstream, config);
+        assertEquals(Collections.singleton(downstream), data.getFixed());
+        assertEquals(Collections.singleton("other"), data.getUnresolved());
+
+        FreeStyleProject other = j.createFreeStyleProject("other");
+        // the previous data is kept until the new one is available
+        assertNotNull(SubProjectDataCache.get(upstream, config));
+        data = SubProjectDataCache.await(upstream, config);
+        assertTrue(data.getFixed().contains(other));
+        assertTrue(data.getUnresolved().isEmpty());
+    }
+
+    @Test
+    void headingsOfUnreadableProjectsAreNotShown(JenkinsRule j) throws Exception {
+        j.createFreeStyleProject("downstream");
+        FreeStyleProject upstream = j.createFreeStyleProject("upstream");
+        BlockableBuildTriggerConfig config =
+                new BlockableBuildTriggerConfig("downstream", null, Collections.emptyList());
+        upstream.getBuildersList().add(new TriggerBuilder(config));
+        j.jenkins.setSecurityRealm(j.createDummySecurityRealm());
+        j.jenkins.setAuthorizationStrategy(new MockAuthorizationStrategy()
+                .grant(Jenkins.ADMINISTER)
+                .everywhere()
+                .to("admin")
+                .grant(Jenkins.READ)
+                .everywhere()
+                .to("alice")
+                .grant(Item.READ)
+                .onItems(upstream)
+                .to("alice"));
+        SubProjectDataCache.await(upstream, config);
+
+        String adminPage = j.createWebClient()
+                .login("admin")
+                .getPage(upstream)
+                .getWebResponse()
+                .getContentAsString();
+        assertTrue(adminPage.contains("Static"), adminPage);
+        String alicePage = j.createWebClient()
+                .login("alice")
+                .getPage(upstream)
+                .getWebResponse()
+                .getContentAsString();
+        assertFalse(alicePage.contains("Static"), alicePage);
+        assertFalse(alicePage.contains("downstream"), alicePage);
+    }
+
+    @Test
+    void projectsInUnreadableFoldersAreNotShown(JenkinsRule j) throws Exception {
+        MockFolder folder = j.createFolder("folder");
+        FreeStyleProject downstream = folder.createProject(FreeStyleProject.class, "downstream");
+        FreeStyleProject upstream = j.createFreeStyleProject("upstream");
+        BlockableBuildTriggerConfig config =
+                new BlockableBuildTriggerConfig("folder/downstream", null, Collections.emptyList());
+        upstream.getBuildersList().add(new TriggerBuilder(config));
+        j.jenkins.setSecurityRealm(j.createDummySecurityRealm());
+        // alice can read the downstream project but not the folder holding it
+        j.jenkins.setAuthorizationStrategy(new MockAuthorizationStrategy()
+                .grant(Jenkins.READ)
+                .everywhere()
+                .to("alice")
+                .grant(Item.READ)
+                .onItems(upstream, downstream)
+                .to("alice"));
+        SubProjectDataCache.await(upstream, config);
+
+        String alicePage = j.createWebClient()
+                .login("alice")
+                .getPage(upstream)
+                .getWebResponse()
+                .getContentAsString();
+        assertFalse(alicePage.contains("Static"), alicePage);
+        assertFalse(alicePage.contains("folder/downstream"), alicePage);
+    }
+}
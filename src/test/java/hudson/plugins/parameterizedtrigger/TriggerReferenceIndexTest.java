@@ -0,0 +1,42 @@
+package hudson.plugins.parameterizedtrigger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import hudson.model.FreeStyleProject;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class TriggerReferenceIndexTest {
+
+    @Test
+    void referrersFollowConfigurationChanges(JenkinsRule j) throws Exception {
+        FreeStyleProject downstream1 = j.createFreeStyleProject("downstream1");
+        FreeStyleProject downstream2 = j.createFreeStyleProject("downstream2");
+        FreeStyleProject upstream = j.createFreeStyleProject("upstream");
+        upstream.getPublishersList()
+                .add(new BuildTrigger(Collections.singletonList(
+                        new BuildTriggerConfig("downstream1", ResultCondition.SUCCESS, false, null))));
+
+        assertEquals(Collections.singletonList(upstream), TriggerReferenceIndex.getReferrers("downstream1"));
+        assertEquals(Collections.emptyList(), TriggerReferenceIndex.getReferrers("downstream2"));
+
+        upstream.getPublishersList().clear();
+        upstream.getPublishersList()
+                .add(new BuildTrigger(Collections.singletonList(
+                        new BuildTriggerConfig("downstream2", ResultCondition.SUCCESS, false, null))));
+
+        assertEquals(Collections.emptyList(), TriggerReferenceIndex.getReferrers("downstream1"));
+        assertEquals(Collections.singletonList(upstream), TriggerReferenceIndex.getReferrers("downstream2"));
+
+        downstream2.renameTo("renamed");
+        assertEquals("renamed", upstream.getPublishersList().get(BuildTrigger.class).getConfigs().get(0).getProjects());
+        assertEquals(Collections.singletonList(upstream), TriggerReferenceIndex.getReferrers("renamed"));
+
+        downstream1.delete();
+        upstream.delete();
+        assertEquals(Collections.emptyList(), TriggerReferenceIndex.getReferrers("renamed"));
+    }
+}
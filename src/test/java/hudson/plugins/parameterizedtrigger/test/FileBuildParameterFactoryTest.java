@@ -24,6 +24,7 @@
 package hudson.plugins.parameterizedtrigger.test;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 import hudson.EnvVars;
 import hudson.Launcher;
@@ -42,9 +43,11 @@ import hudson.plugins.parameterizedtrigger.BlockingBehaviour;
 import hudson.plugins.parameterizedtrigger.FileBuildParameterFactory;
 import hudson.plugins.parameterizedtrigger.FileBuildParameterFactory.NoFilesFoundEnum;
 import hudson.plugins.parameterizedtrigger.TriggerBuilder;
+import hudson.slaves.DumbSlave;
 import hudson.util.FormValidation;
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -154,6 +157,50 @@ class FileBuildParameterFactoryTest {
         assertEquals(new HashSet<>(Arrays.asList("hello_abc", "hello_xyz")), values);
     }
 
+    @Test
+    void testFilesOnAgentAreReadWithTheControllerEncoding(JenkinsRule r) throws Exception {
+        Charset controllerCharset = Charset.defaultCharset();
+        assumeTrue(controllerCharset.newEncoder().canEncode("hällo"));
+        // the agent defaults to another encoding than the controller
+        String agentCharset = controllerCharset.equals(StandardCharsets.UTF_8) ? "ISO-8859-1" : "UTF-8";
+        DumbSlave agent =
+                r.createOnlineSlave(null, new EnvVars("JAVA_TOOL_OPTIONS", "-Dfile.encoding=" + agentCharset));
+
+        // create triggered build, with capture env builder
+        Project projectB = r.createFreeStyleProject();
+        CaptureAllEnvironmentBuilder builder = new CaptureAllEnvironmentBuilder();
+        projectB.getBuildersList().add(builder);
+        // SECURITY-170: must define parameters in subjobs
+        projectB.addProperty(new ParametersDefinitionProperty(new StringParameterDefinition("TEST", "test")));
+
+        // create triggering build on the agent, all files being read at once there
+        FreeStyleProject projectA = r.createFreeStyleProject();
+        projectA.setAssignedNode(agent);
+        projectA.getBuildersList().add(new TestBuilder() {
+            public boolean perform(AbstractBuild<?, ?> build, Launcher launcher, BuildListener listener)
+                    throws InterruptedException, IOException {
+                build.getWorkspace().child("abc.txt").write("TEST=hällo_abc", controllerCharset.name());
+                build.getWorkspace().child("xyz.txt").write("TEST=hällo_xyz", controllerCharset.name());
+                return true;
+            }
+        });
+        // add Trigger builder, with file parameter factory and the default encoding
+        projectA.getBuildersList().add(createTriggerBuilder(projectB, NoFilesFoundEnum.SKIP));
+
+        r.buildAndAssertSuccess(projectA);
+
+        // check triggered builds are correct.
+        r.waitUntilNoActivity();
+        List<FreeStyleBuild> builds = projectB.getBuilds();
+        assertEquals(2, builds.size());
+
+        Set<String> values = new HashSet<>();
+        for (FreeStyleBuild build : builds) {
+            values.add(builder.getEnvVars().get(build.getId()).get("TEST"));
+        }
+        assertEquals(new HashSet<>(Arrays.asList("hällo_abc", "hällo_xyz")), values);
+    }
+
     @Test
     void testNoFilesSkip(JenkinsRule r) throws Exception {
         // create triggered build, with capture env builder
@@ -59,6 +59,7 @@ import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
 import org.jenkinsci.plugins.workflow.job.WorkflowJob;
 import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.FailureBuilder;
 import org.jvnet.hudson.test.Issue;
 import org.jvnet.hudson.test.JenkinsRule;
 import org.jvnet.hudson.test.SleepBuilder;
@@ -312,6 +313,38 @@ class TriggerBuilderTest {
                 "Waiting for the completion of project3");
     }
 
+    @Test
+    void testFailFastCancelsRemainingBuilds(JenkinsRule r) throws Exception {
+        r.jenkins.setNumExecutors(2); // one for the trigger project and one for the triggered builds
+        r.jenkins.setNodes(r.jenkins.getNodes()); // update nodes configuration
+
+        FreeStyleProject failing = r.createFreeStyleProject("failing");
+        failing.getBuildersList().add(new FailureBuilder());
+        FreeStyleProject slow = r.createFreeStyleProject("slow");
+        slow.getBuildersList().add(new SleepBuilder(60000));
+
+        FreeStyleProject triggerProject = r.createFreeStyleProject("projectA");
+
+        BlockingBehaviour blockingBehaviour = new BlockingBehaviour(Result.FAILURE, Result.UNSTABLE, Result.FAILURE);
+        blockingBehaviour.setCompletionOrder(true);
+        blockingBehaviour.setFailFast(true);
+        triggerProject
+                .getBuildersList()
+                .add(new TriggerBuilder(new BlockableBuildTriggerConfig("failing, slow", blockingBehaviour, null)));
+
+        FreeStyleBuild build = triggerProject.scheduleBuild2(0).get();
+        r.assertBuildStatus(Result.FAILURE, build);
+        r.waitUntilNoActivity();
+
+        assertLines(
+                build,
+                "Waiting for the completion of failing",
+                "Waiting for the completion of slow",
+                "failing #1 completed. Result was FAILURE",
+                "Build step failed: cancelled the remaining triggered builds.");
+        assertNull(slow.getLastBuild(), "The queued build should have been cancelled");
+    }
+
     /** Verify that workflow build can be triggered */
     @Test
     void testTriggerWithWorkflow(JenkinsRule r) throws Exception {